@@ -0,0 +1,91 @@
+package com.docuflow.analytics;
+
+import com.docuflow.events.DocumentEvent;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The counter changes implied by a batch of doc-events: per-state document counts and, per UTC day, $inc and $max
+ * amounts keyed by field path. Turnaround is measured from the document's creation, which a document id carries
+ * as the ObjectId timestamp, so no lookup is needed.
+ */
+public final class AnalyticsDelta {
+
+    static final String UNKNOWN = "unknown";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+
+    private final Map<String, Long> states = new HashMap<>();
+    private final Map<String, Map<String, Long>> inc = new TreeMap<>();
+    private final Map<String, Map<String, Long>> max = new TreeMap<>();
+
+    public void add(DocumentEvent e) {
+        String day = day(e.at());
+        switch (e.type()) {
+            case CREATED -> {
+                state(e.toState(), 1);
+                inc(day, "created", 1);
+            }
+            case TRANSITIONED -> {
+                state(e.fromState(), -1);
+                state(e.toState(), 1);
+                String action = key(e.action());
+                inc(day, "actions." + action, 1);
+                inc(day, "actors." + key(e.actor()), 1);
+                if (e.documentId() != null && ObjectId.isValid(e.documentId())) {
+                    long ms = Math.max(0, e.at().toEpochMilli() - new ObjectId(e.documentId()).getDate().getTime());
+                    inc(day, "turnaround." + action + ".count", 1);
+                    inc(day, "turnaround." + action + ".totalMs", ms);
+                    max.computeIfAbsent(day, d -> new HashMap<>()).merge("turnaround." + action + ".maxMs", ms, Math::max);
+                }
+            }
+            case DELETED -> {
+                state(e.fromState(), -1);
+                inc(day, "deleted", 1);
+            }
+            case EDITED -> inc(day, "edited", 1);
+            case NOTIFIED, PREVIEWED -> { }
+        }
+    }
+
+    public boolean isEmpty() { return states.isEmpty() && inc.isEmpty(); }
+
+    /** State key to count change, zero changes dropped. */
+    public Map<String, Long> states() {
+        states.values().removeIf(v -> v == 0);
+        return states;
+    }
+
+    /** Day to field path to amount, for $inc. */
+    public Map<String, Map<String, Long>> increments() { return inc; }
+
+    /** Day to field path to value, for $max. */
+    public Map<String, Map<String, Long>> maxima() { return max; }
+
+    private void state(String state, long n) {
+        states.merge(key(state), n, Long::sum);
+    }
+
+    private void inc(String day, String path, long n) {
+        inc.computeIfAbsent(day, d -> new HashMap<>()).merge(path, n, Long::sum);
+    }
+
+    public static String day(Instant at) {
+        return DAY.format(at);
+    }
+
+    /** Escapes a value for use as a field name: dots and dollars would otherwise be read as paths and operators. */
+    public static String key(String raw) {
+        if (raw == null || raw.isEmpty()) return UNKNOWN;
+        return raw.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    public static String unkey(String key) {
+        return key.replace("%2E", ".").replace("%24", "$").replace("%25", "%");
+    }
+}
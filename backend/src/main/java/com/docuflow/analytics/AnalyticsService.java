@@ -0,0 +1,212 @@
+package com.docuflow.analytics;
+
+import com.docuflow.config.Threads;
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.AnalyticsCounters;
+import com.docuflow.model.AnalyticsDay;
+import com.docuflow.model.AppliedEvent;
+import com.docuflow.repository.AnalyticsRepository;
+import com.docuflow.repository.JobLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Materialized dashboard numbers: per-state document counts and per-day rollups of creations, edits, deletions,
+ * transitions per action and per actor, and time from creation to each action. They are kept current from
+ * doc-events on a shared subscription, so every event is counted by one node, and each event id is recorded first
+ * so a redelivery is not counted twice. When applying fails the marks are removed again and the batch is nacked for
+ * redelivery (a crash in between still loses that batch; a rebuild repairs it). Queries read
+ * one counters document or at most {@link #MAX_DAYS} day documents, whatever the size of the collections.
+ *
+ * <p>A rebuild replaces the counters wholesale, so while its lease is held every node holds its batches back instead
+ * of applying them. It counts the audits up to a watermark a little in the past, which leaves room for audits still
+ * on their way to Mongo; afterwards events stamped at or before the watermark are skipped as already counted.
+ */
+@Service
+public class AnalyticsService {
+
+    static final String SUBSCRIPTION = "analytics";
+    static final String JOB = "analytics-rebuild";
+    public static final int MAX_DAYS = 366;
+    static final int TOP_ACTORS = 20;
+    static final Duration WATERMARK_LAG = Duration.ofMinutes(1);
+    private static final long REBUILD_POLL_MS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    public record Turnaround(long count, long avgMs, long maxMs) {}
+
+    public record Day(String day, long created, long edited, long deleted, Map<String, Long> actions,
+                      Map<String, Long> actors, Map<String, Turnaround> turnaround) {}
+
+    public record Summary(String from, String to, long created, long edited, long deleted, Map<String, Long> actions,
+                          Map<String, Long> topActors, Map<String, Turnaround> turnaround) {}
+
+    private final DocEventBus bus;
+    private final AnalyticsRepository repo;
+    private final JobLockRepository locks;
+    private final MeterRegistry meters;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.rebuild-if-empty:true}")
+    private boolean rebuildIfEmpty;
+
+    @Value("${app.analytics.rebuild-lease:PT1H}")
+    private Duration rebuildLease;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    public AnalyticsService(DocEventBus bus, AnalyticsRepository repo, JobLockRepository locks, MeterRegistry meters) {
+        this.bus = bus;
+        this.repo = repo;
+        this.locks = locks;
+        this.meters = meters;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        bus.subscribe(SUBSCRIPTION, DocEventBus.Delivery.SHARED, this::count);
+        // first start against existing data: backfill in the background; the rebuild replaces what events count meanwhile
+        if (rebuildIfEmpty && repo.counters() == null) startRebuild();
+    }
+
+    void count(List<DocumentEvent> events) throws InterruptedException {
+        while (locks.isHeld(JOB)) Thread.sleep(REBUILD_POLL_MS);
+        AnalyticsCounters counters = repo.counters();
+        Instant asOf = counters == null ? null : counters.getAsOf();
+        List<AppliedEvent> applied = new ArrayList<>(events.size());
+        for (DocumentEvent e : events) {
+            if (e.type() == DocumentEvent.Type.NOTIFIED || e.type() == DocumentEvent.Type.PREVIEWED) continue;
+            if (asOf == null || e.at().isAfter(asOf)) applied.add(new AppliedEvent(e.id(), e.at()));
+        }
+        if (applied.isEmpty()) return;
+        Set<String> fresh = repo.markApplied(applied);
+        AnalyticsDelta delta = new AnalyticsDelta();
+        for (DocumentEvent e : events) {
+            if (fresh.contains(e.id())) delta.add(e);
+        }
+        try {
+            repo.apply(delta);
+        } catch (RuntimeException e) {
+            repo.unmarkApplied(fresh);
+            throw e;
+        }
+    }
+
+    /** Starts a rebuild on a background thread; false when one is already running on this or another node. */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        // every node finds no counters on a first start; the lease lets one of them rebuild
+        if (!locks.acquire(JOB, owner, Instant.now().plus(rebuildLease))) {
+            rebuilding.set(false);
+            return false;
+        }
+        Threads.start("analytics-rebuild", virtualThreads, () -> {
+            try {
+                Timer.Sample sample = Timer.start(meters);
+                int days = repo.rebuild(Instant.now().minus(WATERMARK_LAG));
+                long ns = sample.stop(meters.timer("docuflow.analytics.rebuild"));
+                log.info("Rebuilt analytics: {} days in {} ms", days, ns / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Analytics rebuild failed", e);
+            } finally {
+                locks.release(JOB, owner);
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRebuilding() { return rebuilding.get(); }
+
+    public Map<String, Long> stateCounts() {
+        AnalyticsCounters c = repo.counters();
+        Map<String, Long> out = new TreeMap<>();
+        if (c != null && c.getStates() != null) c.getStates().forEach((k, n) -> { if (n != 0) out.put(AnalyticsDelta.unkey(k), n); });
+        return out;
+    }
+
+    /** Days {@code from} to {@code to} inclusive, oldest first, at most {@link #MAX_DAYS}; quiet days are omitted. */
+    public List<Day> days(LocalDate from, LocalDate to) {
+        if (from.plusDays(MAX_DAYS - 1).isBefore(to)) from = to.minusDays(MAX_DAYS - 1);
+        List<Day> out = new ArrayList<>();
+        for (AnalyticsDay d : repo.findDays(from.toString(), to.toString())) {
+            out.add(new Day(d.getId(), d.getCreated(), d.getEdited(), d.getDeleted(), unkeyed(d.getActions()),
+                    unkeyed(d.getActors()), turnaround(d.getTurnaround())));
+        }
+        return out;
+    }
+
+    /** Totals over the last {@code days} days including today (UTC). */
+    public Summary summary(int days) {
+        LocalDate to = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = to.minusDays(Math.max(1, Math.min(days, MAX_DAYS)) - 1);
+        long created = 0, edited = 0, deleted = 0;
+        Map<String, Long> actions = new TreeMap<>();
+        Map<String, Long> actors = new TreeMap<>();
+        Map<String, long[]> turnaround = new TreeMap<>();
+        for (AnalyticsDay d : repo.findDays(from.toString(), to.toString())) {
+            created += d.getCreated();
+            edited += d.getEdited();
+            deleted += d.getDeleted();
+            unkeyed(d.getActions()).forEach((k, n) -> actions.merge(k, n, Long::sum));
+            unkeyed(d.getActors()).forEach((k, n) -> actors.merge(k, n, Long::sum));
+            if (d.getTurnaround() == null) continue;
+            d.getTurnaround().forEach((k, t) -> {
+                long[] acc = turnaround.computeIfAbsent(AnalyticsDelta.unkey(k), x -> new long[3]);
+                acc[0] += t.getCount();
+                acc[1] += t.getTotalMs();
+                acc[2] = Math.max(acc[2], t.getMaxMs());
+            });
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        actors.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_ACTORS)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        Map<String, Turnaround> avg = new TreeMap<>();
+        turnaround.forEach((k, acc) -> avg.put(k, new Turnaround(acc[0], acc[0] == 0 ? 0 : acc[1] / acc[0], acc[2])));
+        return new Summary(from.toString(), to.toString(), created, edited, deleted, actions, top, avg);
+    }
+
+    private static Map<String, Long> unkeyed(Map<String, Long> m) {
+        Map<String, Long> out = new TreeMap<>();
+        if (m != null) m.forEach((k, n) -> out.put(AnalyticsDelta.unkey(k), n));
+        return out;
+    }
+
+    private static Map<String, Turnaround> turnaround(Map<String, AnalyticsDay.Turnaround> m) {
+        Map<String, Turnaround> out = new TreeMap<>();
+        if (m != null) {
+            m.forEach((k, t) -> out.put(AnalyticsDelta.unkey(k),
+                    new Turnaround(t.getCount(), t.getCount() == 0 ? 0 : t.getTotalMs() / t.getCount(), t.getMaxMs())));
+        }
+        return out;
+    }
+}
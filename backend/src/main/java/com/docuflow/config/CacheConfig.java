@@ -0,0 +1,81 @@
+package com.docuflow.config;
+
+import com.docuflow.model.DocumentMetadata;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process caches in front of Mongo. {@link #TEMPLATES} holds the whole template list and simply expires;
+ * {@link #DOCUMENTS} holds documents by id, bounded by approximate heap size, and is evicted on every local
+ * write and on doc-events from other nodes (see DocumentCacheInvalidator). Its TTL only bounds staleness if
+ * an event is ever missed. Documents are mutable, so that cache stores and hands out copies: a caller changing its
+ * document never changes what the next caller reads. Hit/miss counts are published as the actuator
+ * {@code cache.gets} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String TEMPLATES = "templates";
+    public static final String DOCUMENTS = "documents";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.templates.ttl:60s}") Duration templatesTtl,
+                                     @Value("${app.cache.documents.ttl:10m}") Duration documentsTtl,
+                                     @Value("${app.cache.documents.max-weight-mb:64}") long documentsMaxMb) {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return DOCUMENTS.equals(name) ? new CopyingCache(name, cache) : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        manager.setAllowNullValues(false);
+        // no ad-hoc unbounded caches: only the ones registered below exist
+        manager.setCacheNames(List.of());
+        manager.registerCustomCache(TEMPLATES, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(templatesTtl)
+                .recordStats()
+                .build());
+        manager.registerCustomCache(DOCUMENTS, Caffeine.newBuilder()
+                .maximumWeight(documentsMaxMb * 1024 * 1024)
+                .weigher((Object id, Object doc) -> weight(doc))
+                .expireAfterWrite(documentsTtl)
+                .recordStats()
+                .build());
+        return manager;
+    }
+
+    /** Rough retained size in bytes; inline content and extracted text dominate when present. */
+    private static int weight(Object doc) {
+        if (!(doc instanceof DocumentMetadata d)) return 512;
+        return 512 + 2 * (length(d.getContent()) + length(d.getSearchText()));
+    }
+
+    private static int length(String s) { return s == null ? 0 : s.length(); }
+
+    private static final class CopyingCache extends CaffeineCache {
+
+        CopyingCache(String name, Cache<Object, Object> cache) { super(name, cache, false); }
+
+        @Override
+        protected Object toStoreValue(Object userValue) { return super.toStoreValue(copy(userValue)); }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) { return copy(super.fromStoreValue(storeValue)); }
+
+        private static Object copy(Object value) {
+            return value instanceof DocumentMetadata d ? d.copy() : value;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.docuflow.config;
+
+import com.docuflow.service.NotificationHub;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges for state owned by beans that do not otherwise depend on Micrometer. Request, repository and Mongo
+ * command timings come from the actuator auto-configuration; histogram buckets are switched on in application.yml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder notificationStreams(NotificationHub hub) {
+        return registry -> Gauge.builder("docuflow.notifications.streams", hub, NotificationHub::connectionCount)
+                .description("Open Server-Sent Events notification streams on this node")
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.docuflow.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool sizing. With virtual threads request concurrency is no longer capped by Tomcat's pool, so the
+ * Mongo pool becomes the limit: max-size bounds the load put on mongod and max-wait-ms bounds how long a request
+ * queues for a connection before failing. These settings take precedence over pool options in the URI.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPool(@Value("${app.mongo.pool.max-size:100}") int maxSize,
+                                                               @Value("${app.mongo.pool.min-size:0}") int minSize,
+                                                               @Value("${app.mongo.pool.max-connecting:2}") int maxConnecting,
+                                                               @Value("${app.mongo.pool.max-wait-ms:120000}") long maxWaitMs) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+}
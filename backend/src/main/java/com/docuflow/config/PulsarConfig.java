@@ -0,0 +1,22 @@
+package com.docuflow.config;
+
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * One Pulsar client per node, shared by the doc-events producer and consumers. Building it does not connect;
+ * producers and consumers that cannot reach the broker fail on create and their owners degrade on their own.
+ */
+@Configuration
+public class PulsarConfig {
+
+    public static final String DOC_EVENTS_TOPIC = "persistent://public/default/doc-events";
+
+    @Bean(destroyMethod = "close")
+    public PulsarClient pulsarClient(@Value("${app.pulsar.serviceUrl:pulsar://localhost:6650}") String serviceUrl) throws PulsarClientException {
+        return PulsarClient.builder().serviceUrl(serviceUrl).build();
+    }
+}
@@ -1,56 +1,55 @@
 package com.docuflow.config;
 
+import com.docuflow.security.Role;
+import com.docuflow.security.TokenAuthFilter;
+import com.docuflow.security.TokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpFilter;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.util.List;
-
 @Configuration
-@EnableMethodSecurity
 public class SecurityConfig {
 
+    /**
+     * Stateless: every API request carries a bearer token from /api/auth/token, so there is no session, no
+     * HTTP Basic password hashing per request and nothing to replicate between nodes.
+     */
     @Bean
     @Order(1)
-    public SecurityFilterChain apiFilter(HttpSecurity http) throws Exception {
+    public SecurityFilterChain apiFilter(HttpSecurity http, TokenService tokens) throws Exception {
         http
-            .csrf(csrf -> csrf.disable())
+            .csrf(AbstractHttpConfigurer::disable)
+            .httpBasic(AbstractHttpConfigurer::disable)
+            .formLogin(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/workflow/**").authenticated()
-                .anyRequest().permitAll()
+                .requestMatchers("/api/auth/**", "/actuator/health/**", "/actuator/info", "/error").permitAll()
+                // metrics and prometheus need an Approver token
+                .requestMatchers("/actuator/**").hasRole(Role.APPROVER.name())
+                .requestMatchers("/api/**").authenticated()
+                .anyRequest().denyAll()
             )
-            .httpBasic(Customizer.withDefaults());
+            .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
 
-        // insert header-based auth filter to support frontend-simulated login
-        http.addFilterBefore(new HeaderAuthFilter(), UsernamePasswordAuthenticationFilter.class);
+        // not a bean, so the servlet container does not register it a second time outside the chain
+        http.addFilterBefore(new TokenAuthFilter(tokens), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
-    static class HeaderAuthFilter extends HttpFilter {
-        @Override
-        protected void doFilter(HttpServletRequest req, HttpServletResponse res, FilterChain chain) throws IOException, ServletException {
-            String user = req.getHeader("X-USER");
-            String role = req.getHeader("X-ROLE");
-            if (user != null) {
-                String r = (role == null) ? "Submitter" : role;
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, List.of(new SimpleGrantedAuthority("ROLE_" + r.toUpperCase())));
-                org.springframework.security.core.context.SecurityContextHolder.getContext().setAuthentication(auth);
-            }
-            chain.doFilter(req, res);
-        }
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
     }
 }
@@ -0,0 +1,27 @@
+package com.docuflow.config;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for the app's own background work (audit writer, event pollers, notification pushes). They follow
+ * {@code spring.threads.virtual.enabled} like Tomcat and the scheduler do: virtual when it is on, named platform
+ * daemon threads otherwise.
+ */
+public final class Threads {
+
+    private Threads() {}
+
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) return Thread.ofVirtual().name(prefix, 0).factory();
+        CustomizableThreadFactory f = new CustomizableThreadFactory(prefix);
+        f.setDaemon(true);
+        return f;
+    }
+
+    public static Thread start(String name, boolean virtual, Runnable task) {
+        Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        return builder.name(name).start(task);
+    }
+}
@@ -0,0 +1,54 @@
+package com.docuflow.controller;
+
+import com.docuflow.analytics.AnalyticsService;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    static final int DEFAULT_DAYS = 30;
+
+    private final AnalyticsService analytics;
+
+    public AnalyticsController(AnalyticsService analytics) { this.analytics = analytics; }
+
+    @GetMapping("/states")
+    public ResponseEntity<Map<String, Long>> stateCounts() {
+        return ResponseEntity.ok(analytics.stateCounts());
+    }
+
+    /** Per-day rollups, oldest first; defaults to the last 30 days and never spans more than a year. */
+    @GetMapping("/daily")
+    public ResponseEntity<List<AnalyticsService.Day>> daily(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isAfter(end)) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(analytics.days(start, end));
+    }
+
+    /** Totals, busiest actors and average turnaround per action over the last {@code days} days. */
+    @GetMapping("/summary")
+    public ResponseEntity<AnalyticsService.Summary> summary(@RequestParam(defaultValue = "" + DEFAULT_DAYS) int days) {
+        return ResponseEntity.ok(analytics.summary(days));
+    }
+
+    /** Recomputes everything from documents and audits in the background. 202 started, 409 already running. */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(@AuthenticationPrincipal UserPrincipal user) {
+        if (!user.is(Role.APPROVER)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.status(analytics.startRebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
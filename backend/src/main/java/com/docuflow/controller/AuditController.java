@@ -1,24 +1,105 @@
 package com.docuflow.controller;
 
 import com.docuflow.model.DocumentAudit;
+import com.docuflow.repository.AuditFilter;
+import com.docuflow.repository.AuditSegmentRepository;
 import com.docuflow.repository.DocumentAuditRepository;
+import com.docuflow.repository.KeysetCursor;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/audits")
 public class AuditController {
 
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
     private final DocumentAuditRepository repo;
+    private final AuditSegmentRepository archive;
 
-    public AuditController(DocumentAuditRepository repo) { this.repo = repo; }
+    public AuditController(DocumentAuditRepository repo, AuditSegmentRepository archive) {
+        this.repo = repo;
+        this.archive = archive;
+    }
 
     @GetMapping("/document/{documentId}")
-    public ResponseEntity<List<DocumentAudit>> listForDocument(@PathVariable String documentId) {
-        List<DocumentAudit> all = repo.findAll();
-        List<DocumentAudit> filtered = all.stream().filter(a -> documentId.equals(a.getDocumentId())).toList();
-        return ResponseEntity.ok(filtered);
+    public ResponseEntity<List<DocumentAudit>> listForDocument(@PathVariable String documentId,
+                                                               @RequestParam(required = false) String action,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        return page(new AuditFilter(documentId, null, action, from, to), cursor, limit);
+    }
+
+    /** A user's own activity trail; Approvers may read anyone's. */
+    @GetMapping("/actor/{actor}")
+    public ResponseEntity<List<DocumentAudit>> listForActor(@PathVariable String actor, @AuthenticationPrincipal UserPrincipal user,
+                                                            @RequestParam(required = false) String action,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        if (!user.username().equals(actor) && !user.is(Role.APPROVER)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return page(new AuditFilter(null, actor, action, from, to), cursor, limit);
+    }
+
+    private ResponseEntity<List<DocumentAudit>> page(AuditFilter filter, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // fetch one extra row to learn whether another page exists without a count query
+        List<DocumentAudit> hot = new ArrayList<>(size + 1);
+        try (Stream<DocumentAudit> s = repo.streamPage(filter, after, size + 1)) {
+            s.forEach(hot::add);
+        }
+        // audits past the retention window live in archive segments; a full hot page only needs archived rows as new as its oldest
+        Instant notBefore = hot.size() > size ? hot.get(size).getAt() : null;
+        List<DocumentAudit> items = merge(hot, archive.findArchived(filter, after, size + 1, notBefore), size + 1);
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (items.size() > size) {
+            items.remove(size);
+            DocumentAudit last = items.get(size - 1);
+            res.header(KeysetCursor.HEADER, new KeysetCursor(last.getAt(), last.getId()).encode());
+        }
+        return res.body(items);
+    }
+
+    /** Merges two newest-first pages; a row being archived right now can briefly be in both. */
+    private static List<DocumentAudit> merge(List<DocumentAudit> a, List<DocumentAudit> b, int limit) {
+        if (b.isEmpty()) return a;
+        List<DocumentAudit> out = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        int i = 0, j = 0;
+        while (out.size() < limit && (i < a.size() || j < b.size())) {
+            DocumentAudit next;
+            if (j >= b.size()) next = a.get(i++);
+            else if (i >= a.size()) next = b.get(j++);
+            else next = newer(a.get(i), b.get(j)) ? a.get(i++) : b.get(j++);
+            if (seen.add(next.getId())) out.add(next);
+        }
+        return out;
+    }
+
+    private static boolean newer(DocumentAudit x, DocumentAudit y) {
+        int c = x.getAt().compareTo(y.getAt());
+        return c > 0 || (c == 0 && x.getId().compareTo(y.getId()) > 0);
     }
 }
@@ -1,76 +1,268 @@
 package com.docuflow.controller;
 
 import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentSummary;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.model.StoredBlob;
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.preview.PreviewService;
+import com.docuflow.repository.DocumentFilter;
 import com.docuflow.repository.DocumentRepository;
+import com.docuflow.repository.KeysetCursor;
+import com.docuflow.repository.SearchResult;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.service.AuditService;
+import com.docuflow.service.TextExtractor;
+import com.docuflow.storage.BlobService;
+import com.docuflow.storage.FileStore;
+import com.docuflow.versioning.VersionService;
+import com.docuflow.workflow.CompiledWorkflow;
+import com.docuflow.workflow.WorkflowRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Base64;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/documents")
 public class DocumentController {
 
+    static final int DEFAULT_PAGE = 100;
+    static final int MAX_PAGE = 500;
+    static final int DEFAULT_HITS = 20;
+    static final int MAX_HITS = 100;
+    // search pages by offset; deep pages cost a skip over every earlier hit
+    static final int MAX_SEARCH_DEPTH = 10_000;
+    static final int MAX_FACETS = 20;
+
     private final DocumentRepository repo;
+    private final FileStore fileStore;
+    private final BlobService blobs;
+    private final WorkflowRegistry workflows;
+    private final AuditService auditService;
+    private final VersionService versions;
+    private final PreviewService previews;
+    private final DistributionSummary uploadBytes;
+    private final DistributionSummary downloadBytes;
 
-    public DocumentController(DocumentRepository repo) { this.repo = repo; }
+    public DocumentController(DocumentRepository repo, FileStore fileStore, BlobService blobs, WorkflowRegistry workflows,
+                              AuditService auditService, VersionService versions, PreviewService previews, MeterRegistry meters) {
+        this.repo = repo;
+        this.fileStore = fileStore;
+        this.blobs = blobs;
+        this.workflows = workflows;
+        this.auditService = auditService;
+        this.versions = versions;
+        this.previews = previews;
+        this.uploadBytes = DistributionSummary.builder("docuflow.documents.upload.bytes").baseUnit("bytes").register(meters);
+        this.downloadBytes = DistributionSummary.builder("docuflow.documents.download.bytes").baseUnit("bytes").register(meters);
+    }
 
     @GetMapping
-    public ResponseEntity<List<DocumentMetadata>> listDocuments(@RequestHeader(value = "X-USER", required = false) String user,
-                                                               @RequestHeader(value = "X-ROLE", required = false) String role) {
+    public ResponseEntity<List<DocumentSummary>> listDocuments(@AuthenticationPrincipal UserPrincipal user,
+                                                              @RequestParam(required = false) List<String> workflowState,
+                                                              @RequestParam(required = false) String tag,
+                                                              @RequestParam(required = false) String author,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
         // Approver can see all documents; others see only their own by author
-        if (role != null && role.equalsIgnoreCase("Approver")) {
-            return ResponseEntity.ok(repo.findAll());
+        String owner = user.is(Role.APPROVER) ? author : user.username();
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = limit == null ? DEFAULT_PAGE : Math.max(1, Math.min(limit, MAX_PAGE));
+        DocumentFilter filter = new DocumentFilter(owner, workflowState, tag);
+        // fetch one extra row to learn whether another page exists without a count query
+        List<DocumentSummary> items = new ArrayList<>(size + 1);
+        try (Stream<DocumentSummary> s = repo.streamSummaries(filter, after, size + 1)) {
+            s.forEach(items::add);
         }
-        if (user != null && !user.isBlank()) {
-            return ResponseEntity.ok(repo.findByAuthor(user));
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (items.size() > size) {
+            items.remove(size);
+            DocumentSummary last = items.get(size - 1);
+            res.header(KeysetCursor.HEADER, new KeysetCursor(last.getUpdatedAt(), last.getId()).encode());
         }
-        // default to none if unauthenticated
-        return ResponseEntity.ok(List.of());
+        return res.body(items);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchResult> searchDocuments(@AuthenticationPrincipal UserPrincipal user,
+                                                        @RequestParam String q,
+                                                        @RequestParam(required = false) List<String> workflowState,
+                                                        @RequestParam(required = false) String tag,
+                                                        @RequestParam(required = false) String author,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(required = false) Integer size) {
+        if (q.isBlank()) return ResponseEntity.badRequest().build();
+        int pageSize = size == null ? DEFAULT_HITS : Math.max(1, Math.min(size, MAX_HITS));
+        int pageNo = Math.max(0, page);
+        if ((long) (pageNo + 1) * pageSize > MAX_SEARCH_DEPTH) return ResponseEntity.badRequest().build();
+        // same visibility as the listing: Approver searches everything, others only their own documents
+        DocumentFilter filter = new DocumentFilter(user.is(Role.APPROVER) ? author : user.username(), workflowState, tag);
+        return ResponseEntity.ok(repo.search(q, filter, pageNo, pageSize, MAX_FACETS));
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<DocumentMetadata> uploadDocument(@RequestParam String title,
-                                                           @RequestParam String author,
+    public ResponseEntity<DocumentMetadata> uploadDocument(@AuthenticationPrincipal UserPrincipal user,
+                                                           @RequestParam String title,
                                                            @RequestParam(required = false) List<String> tags,
                                                            @RequestParam(required = false, name = "file") MultipartFile file,
-                                                           @RequestParam(required = false, name = "content") String textContent) {
+                                                           @RequestParam(required = false, name = "content") String textContent,
+                                                           @RequestParam(required = false) String contentHash,
+                                                           @RequestParam(required = false) String fileName,
+                                                           @RequestParam(required = false) String documentType) throws IOException {
+        CompiledWorkflow workflow = workflows.find(documentType);
+        if (workflow == null) return ResponseEntity.badRequest().build();
+        String author = user.username();
         DocumentMetadata m = new DocumentMetadata();
         m.setTitle(title);
         m.setAuthor(author);
-        m.setWorkflowState("Draft");
+        m.setDocumentType(documentType);
+        m.setWorkflowState(workflow.initialState());
         m.setCreatedAt(java.time.Instant.now());
         m.setUpdatedAt(java.time.Instant.now());
         m.setTags(tags);
-        // For demo: store a simple content marker for file or inline text
-        try {
-            if (file != null && !file.isEmpty()) {
-                // store only a small pointer including name and base64 of first bytes for preview
-                byte[] bytes = file.getBytes();
-                int len = Math.min(bytes.length, 16 * 1024); // cap preview size
-                String head = Base64.getEncoder().encodeToString(java.util.Arrays.copyOf(bytes, len));
-                String pointer = "file:" + file.getOriginalFilename() + ";type:" + file.getContentType() + ";data:" + head;
-                m.setContent(pointer);
-            } else if (textContent != null && !textContent.isBlank()) {
-                m.setContent(textContent);
+        m.setContentVersion(1);
+        if (file != null && !file.isEmpty()) {
+            // the multipart part is spooled to disk by the container; identical bytes are stored only once
+            uploadBytes.record(file.getSize());
+            StoredBlob blob = blobs.store(file, file.getOriginalFilename(), file.getContentType(), author);
+            attach(m, blob, file.getOriginalFilename(), file.getContentType());
+            if (indexable(m)) {
+                try (InputStream in = file.getInputStream()) {
+                    index(m, in);
+                }
             }
-        } catch (Exception ignored) {}
+        } else if (contentHash != null && !contentHash.isBlank()) {
+            // the caller sent these bytes before (see GET /blobs/{hash}) and skipped the upload
+            StoredBlob blob = blobs.acquire(contentHash.toLowerCase(), author);
+            if (blob == null) return ResponseEntity.badRequest().build();
+            attach(m, blob, fileName == null ? blob.getId() : fileName, blob.getContentType());
+            Resource stored = indexable(m) ? fileStore.load(blob.getFileId()) : null;
+            if (stored != null) {
+                try (InputStream in = stored.getInputStream()) {
+                    index(m, in);
+                }
+            }
+        } else if (textContent != null && !textContent.isBlank()) {
+            m.setContent(textContent);
+            m.setSearchText(TextExtractor.normalize(textContent));
+        }
         DocumentMetadata saved = repo.save(m);
+        auditService.record(new AuditService.Entry(
+                AuditService.audit(saved.getId(), author, "CREATED", "title=" + title, saved.getCreatedAt()),
+                DocumentEvent.created(saved.getId(), author, documentType, saved.getWorkflowState(), saved.getCreatedAt())));
         return ResponseEntity.ok(saved);
     }
 
+    private void attach(DocumentMetadata m, StoredBlob blob, String fileName, String contentType) {
+        m.setContentHash(blob.getId());
+        m.setFileId(blob.getFileId());
+        m.setFileName(fileName);
+        m.setContentType(contentType);
+        m.setFileSize(blob.getLength());
+        // generated in the background once the CREATED event is consumed (see PreviewService); with previews
+        // switched off the ref stays unset, so the sweep picks the document up if they are switched on later
+        if (previews.isEnabled()) m.setPreview(PreviewRef.pending());
+    }
+
+    private static boolean indexable(DocumentMetadata m) {
+        return TextExtractor.supports(m.getContentType(), m.getFileName());
+    }
+
+    /** Sets the text to index from the first bytes of a text-format file. */
+    private static void index(DocumentMetadata m, InputStream in) throws IOException {
+        m.setSearchText(TextExtractor.extract(in.readNBytes(TextExtractor.MAX_BYTES), m.getContentType(), m.getFileName()));
+    }
+
+    /** Lets clients check by SHA-256 whether they can skip re-uploading bytes they sent before; answers HEAD as well. */
+    @GetMapping("/blobs/{hash}")
+    public ResponseEntity<StoredBlob> getBlob(@PathVariable String hash, @AuthenticationPrincipal UserPrincipal user) {
+        StoredBlob b = blobs.find(hash.toLowerCase(), user.username());
+        return b == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(b);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DocumentMetadata> getDocument(@PathVariable String id) {
         return repo.findById(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteDocument(@PathVariable String id, @AuthenticationPrincipal UserPrincipal user) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null) return ResponseEntity.notFound().build();
+        if (!user.is(Role.APPROVER) && !user.username().equals(d.getAuthor())) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        // a concurrent DELETE may win between the read and here; only the winner releases the blob
+        d = repo.findAndRemove(id);
+        if (d == null) return ResponseEntity.notFound().build();
+        versions.deleteHistory(id);
+        previews.delete(id);
+        if (d.getContentHash() != null) blobs.release(d.getContentHash());
+        // the doc-event also evicts the document from other nodes' caches
+        String actor = user.username();
+        Instant now = Instant.now();
+        auditService.record(new AuditService.Entry(
+                AuditService.audit(id, actor, "DELETED", "title=" + d.getTitle(), now),
+                DocumentEvent.deleted(id, actor, d.getAuthor(), d.getDocumentType(), d.getWorkflowState(), now)));
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Streams the stored file; Spring MVC answers Range requests on a Resource body with 206 partial content. */
     @GetMapping("/{id}/file")
-    public ResponseEntity<byte[]> getDocumentFile(@PathVariable String id) {
-        // file storage not implemented yet
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<Resource> getDocumentFile(@PathVariable String id,
+                                                    @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null || d.getFileId() == null) return ResponseEntity.notFound().build();
+        Resource body = fileStore.load(d.getFileId());
+        if (body == null) return ResponseEntity.notFound().build();
+        MediaType type;
+        try {
+            type = d.getContentType() == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(d.getContentType());
+        } catch (IllegalArgumentException e) {
+            type = MediaType.APPLICATION_OCTET_STREAM;
+        }
+        ContentDisposition disposition = ContentDisposition.inline()
+                .filename(d.getFileName() == null ? d.getId() : d.getFileName(), StandardCharsets.UTF_8)
+                .build();
+        downloadBytes.record(servedBytes(body, range, d.getFileSize()));
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
+    /** Bytes the response will carry: the whole file, or the sum of the requested ranges (0 when they are unsatisfiable). */
+    private static long servedBytes(Resource body, String range, long fileSize) {
+        if (range == null) return fileSize;
+        try {
+            long total = 0;
+            for (ResourceRegion region : HttpRange.toResourceRegions(HttpRange.parseRanges(range), body)) total += region.getCount();
+            return total;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
     }
 }
 
@@ -0,0 +1,96 @@
+package com.docuflow.controller;
+
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentPreview;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.preview.PreviewService;
+import com.docuflow.repository.DocumentPreviewRepository;
+import com.docuflow.repository.DocumentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/documents/{id}/preview")
+public class DocumentPreviewController {
+
+    // private: responses depend on the caller's token; the ETag changes whenever the preview does
+    static final CacheControl CACHE = CacheControl.maxAge(Duration.ofDays(1)).cachePrivate();
+    static final String RETRY_AFTER_SECONDS = "2";
+
+    private final DocumentRepository repo;
+    private final DocumentPreviewRepository previews;
+
+    @Value("${app.previews.enabled:true}")
+    private boolean enabled;
+
+    public DocumentPreviewController(DocumentRepository repo, DocumentPreviewRepository previews) {
+        this.repo = repo;
+        this.previews = previews;
+    }
+
+    public record PreviewBody(String text, boolean thumbnail, int thumbnailWidth, int thumbnailHeight) {}
+
+    /**
+     * 200 with the first page of text and the thumbnail's size, 202 with Retry-After while it is being generated,
+     * 304 for a matching If-None-Match, 404 when the document has no preview.
+     */
+    @GetMapping
+    public ResponseEntity<PreviewBody> preview(@PathVariable String id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        ResponseEntity<PreviewBody> early = check(d, ifNoneMatch);
+        if (early != null) return early;
+        DocumentPreview p = previews.findById(id).orElse(null);
+        if (p == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok().eTag(PreviewService.etag(d)).cacheControl(CACHE)
+                .body(new PreviewBody(p.getText(), p.getThumbnail() != null, p.getThumbnailWidth(), p.getThumbnailHeight()));
+    }
+
+    @GetMapping("/thumbnail")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable String id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d != null && d.getPreview() != null && d.getPreview().getStatus() == PreviewRef.Status.READY && !d.getPreview().isThumbnail()) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity<byte[]> early = check(d, ifNoneMatch);
+        if (early != null) return early;
+        DocumentPreview p = previews.findById(id).orElse(null);
+        if (p == null || p.getThumbnail() == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok().eTag(PreviewService.etag(d)).cacheControl(CACHE)
+                .contentType(MediaType.parseMediaType(p.getThumbnailType()))
+                .body(p.getThumbnail());
+    }
+
+    /** Answers from the document alone where it can, so revalidation never loads the preview. */
+    private <T> ResponseEntity<T> check(DocumentMetadata d, String ifNoneMatch) {
+        PreviewRef ref = d == null ? null : d.getPreview();
+        if (ref == null || d.getFileId() == null) return ResponseEntity.notFound().build();
+        if (ref.getStatus() == PreviewRef.Status.PENDING) {
+            // nothing generates previews on this deployment, so asking again would never help
+            if (!enabled) return ResponseEntity.notFound().build();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+        }
+        if (ref.getStatus() != PreviewRef.Status.READY) return ResponseEntity.notFound().build();
+        String etag = PreviewService.etag(d);
+        if (matches(ifNoneMatch, etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE).build();
+        return null;
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.docuflow.controller;
+
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.repository.DocumentRepository;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.versioning.LineDiff;
+import com.docuflow.versioning.VersionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/documents/{id}")
+public class DocumentVersionController {
+
+    static final int DEFAULT_VERSIONS = 50;
+    static final int MAX_VERSIONS = 200;
+
+    private final DocumentRepository repo;
+    private final VersionService versions;
+
+    public DocumentVersionController(DocumentRepository repo, VersionService versions) {
+        this.repo = repo;
+        this.versions = versions;
+    }
+
+    public record EditRequest(String content, Integer expectedVersion) {}
+
+    public record VersionContent(int version, String content) {}
+
+    public record VersionDiff(int from, int to, List<LineDiff.Change> changes) {}
+
+    /**
+     * Replaces an inline document's content, keeping the old one as a version. 200 with the new version,
+     * 400 for file-backed documents, 403 unless the author or an Approver, 404 missing, 409 with the current version
+     * when {@code expectedVersion} is stale.
+     */
+    @PutMapping("/content")
+    public ResponseEntity<VersionService.Result> editContent(@PathVariable String id, @RequestBody EditRequest body,
+                                                             @AuthenticationPrincipal UserPrincipal user) {
+        if (body == null) return ResponseEntity.badRequest().build();
+        VersionService.Result r = versions.edit(id, body.content(), body.expectedVersion(), user);
+        return switch (r.outcome()) {
+            case APPLIED, CONFLICT -> ResponseEntity.status(r.outcome().status()).body(r);
+            default -> ResponseEntity.status(r.outcome().status()).build();
+        };
+    }
+
+    /** Newest first; pass the last version seen as {@code before} for the next page. */
+    @GetMapping("/versions")
+    public ResponseEntity<List<VersionService.VersionInfo>> listVersions(@PathVariable String id,
+                                                                         @RequestParam(required = false) Integer before,
+                                                                         @RequestParam(required = false) Integer limit) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null) return ResponseEntity.notFound().build();
+        int size = limit == null ? DEFAULT_VERSIONS : Math.max(1, Math.min(limit, MAX_VERSIONS));
+        return ResponseEntity.ok(versions.history(d, before, size));
+    }
+
+    @GetMapping("/versions/{version}")
+    public ResponseEntity<VersionContent> getVersion(@PathVariable String id, @PathVariable int version) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null) return ResponseEntity.notFound().build();
+        String content = versions.contentAt(d, version);
+        return content == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(new VersionContent(version, content));
+    }
+
+    /** Line changes from {@code against} (default: the previous version) to {@code version}. */
+    @GetMapping("/versions/{version}/diff")
+    public ResponseEntity<VersionDiff> diffVersion(@PathVariable String id, @PathVariable int version,
+                                                   @RequestParam(required = false) Integer against) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null) return ResponseEntity.notFound().build();
+        int from = against == null ? version - 1 : against;
+        String newer = versions.contentAt(d, version);
+        String older = from == 0 ? "" : versions.contentAt(d, from);
+        if (newer == null || older == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(new VersionDiff(from, version, LineDiff.diff(older, newer)));
+    }
+}
@@ -1,30 +1,106 @@
 package com.docuflow.controller;
 
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
 import com.docuflow.model.Notification;
+import com.docuflow.repository.KeysetCursor;
 import com.docuflow.repository.NotificationRepository;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.service.NotificationHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
 
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
     private final NotificationRepository repo;
+    private final NotificationHub hub;
+    private final DocEventBus bus;
 
-    public NotificationController(NotificationRepository repo) { this.repo = repo; }
+    public NotificationController(NotificationRepository repo, NotificationHub hub, DocEventBus bus) {
+        this.repo = repo;
+        this.hub = hub;
+        this.bus = bus;
+    }
 
+    /** Callers only ever see their own notifications; the path names the user so existing links keep working. */
     @GetMapping("/user/{username}")
-    public ResponseEntity<List<Notification>> listForUser(@PathVariable String username) {
-        return ResponseEntity.ok(repo.findByUsernameOrderByCreatedAtDesc(username));
+    public ResponseEntity<List<Notification>> listForUser(@PathVariable String username, @AuthenticationPrincipal UserPrincipal user,
+                                                          @RequestParam(defaultValue = "false") boolean unread,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        if (!user.username().equals(username)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<Notification> items = new ArrayList<>(size + 1);
+        try (Stream<Notification> s = repo.streamPage(username, unread, after, size + 1)) {
+            s.forEach(items::add);
+        }
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (items.size() > size) {
+            items.remove(size);
+            Notification last = items.get(size - 1);
+            res.header(KeysetCursor.HEADER, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return res.body(items);
+    }
+
+    @GetMapping("/user/{username}/unread-count")
+    public ResponseEntity<Map<String, Long>> unreadCount(@PathVariable String username, @AuthenticationPrincipal UserPrincipal user) {
+        if (!user.username().equals(username)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(Map.of("count", repo.countByUsernameAndReadFalse(username)));
+    }
+
+    /** Push channel replacing polling: an "unread-count" event on connect, then one "notification" event per new item. */
+    @GetMapping(path = "/user/{username}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable String username, @AuthenticationPrincipal UserPrincipal user) {
+        if (!user.username().equals(username)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(hub.subscribe(username, repo.countByUsernameAndReadFalse(username)));
+    }
+
+    @PostMapping("/{id}/read")
+    public ResponseEntity<Void> markRead(@PathVariable String id, @AuthenticationPrincipal UserPrincipal user) {
+        if (repo.markRead(id, user.username()) || repo.existsByIdAndUsername(id, user.username())) return ResponseEntity.noContent().build();
+        return ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/user/{username}/read-all")
+    public ResponseEntity<Map<String, Long>> markAllRead(@PathVariable String username, @AuthenticationPrincipal UserPrincipal user) {
+        if (!user.username().equals(username)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return ResponseEntity.ok(Map.of("updated", repo.markAllRead(username)));
     }
 
+    /** Callers notify themselves; Approvers may notify anyone. Always creates a new, unread notification. */
     @PostMapping
-    public ResponseEntity<Notification> create(@RequestBody Notification n) {
+    public ResponseEntity<Notification> create(@RequestBody Notification n, @AuthenticationPrincipal UserPrincipal user) {
+        if (n.getUsername() == null) n.setUsername(user.username());
+        if (!user.username().equals(n.getUsername()) && !user.is(Role.APPROVER)) return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        n.setId(null);
         n.setCreatedAt(Instant.now());
         n.setRead(false);
-        return ResponseEntity.ok(repo.save(n));
+        Notification saved = repo.save(n);
+        // pushed by whichever node holds the recipient's stream
+        bus.publish(List.of(DocumentEvent.notified(saved, null)));
+        return ResponseEntity.ok(saved);
     }
 }
@@ -1,64 +1,51 @@
 package com.docuflow.controller;
 
-import com.docuflow.repository.DocumentRepository;
-import com.docuflow.service.AuditService;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.service.WorkflowService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/workflow")
 public class WorkflowController {
 
-    private final DocumentRepository repo;
-    private final AuditService auditService;
+    private final WorkflowService workflow;
 
-    private static final Map<String, String[]> transitions = Map.of(
-            "Draft", new String[]{"Submitted"},
-            "Submitted", new String[]{"Under Review"},
-            "Under Review", new String[]{"Approved","Rejected"},
-            "Approved", new String[]{},
-            "Rejected", new String[]{}
-    );
+    public WorkflowController(WorkflowService workflow) { this.workflow = workflow; }
 
-    public WorkflowController(DocumentRepository repo, AuditService auditService) { this.repo = repo; this.auditService = auditService; }
+    public record BulkStateRequest(List<String> ids, String state) {}
 
+    /** 202 applied, 400 unknown state, 403 role or own document, 404 missing, 409 current state does not allow it. */
     @PostMapping("/{id}/state")
-    public ResponseEntity<?> setState(@PathVariable String id, @RequestParam String state, @RequestParam(required = false) String actor, @RequestHeader(value = "X-USER", required = false) String xuser, @RequestHeader(value = "X-ROLE", required = false) String xrole) {
-        return repo.findById(id).map(d -> {
-            String cur = d.getWorkflowState();
-            String[] allowed = transitions.getOrDefault(cur, new String[]{});
-            boolean ok = false;
-            for (String a : allowed) if (a.equals(state)) { ok = true; break; }
-            if (!ok) return ResponseEntity.badRequest().build();
-            // role checks: Submitter -> Submitted; Reviewer -> Under Review; Approver -> Approved/Rejected
-            org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-            String role = "Submitter";
-            if (auth != null && auth.getAuthorities() != null && !auth.getAuthorities().isEmpty()) {
-                String a = auth.getAuthorities().iterator().next().getAuthority();
-                if (a.startsWith("ROLE_")) role = a.substring(5);
-            } else if (xrole != null && !xrole.isEmpty()) {
-                role = xrole;
-            }
-            if ("Submitted".equals(state) && !"Submitter".equals(role)) return ResponseEntity.status(403).build();
-            if ("Under Review".equals(state) && !("Reviewer".equals(role) || "Approver".equals(role))) return ResponseEntity.status(403).build();
-            if (("Approved".equals(state) || "Rejected".equals(state)) && !"Approver".equals(role)) return ResponseEntity.status(403).build();
-
-            // Prevent author from performing verification steps
-            String actingUser = actor == null ? (xuser == null ? "system" : xuser) : actor;
-            if (("Under Review".equals(state) || "Approved".equals(state) || "Rejected".equals(state)) && actingUser != null && actingUser.equals(d.getAuthor())) {
-                return ResponseEntity.status(403).build();
-            }
+    public ResponseEntity<?> setState(@PathVariable String id, @RequestParam String state, @AuthenticationPrincipal UserPrincipal user) {
+        WorkflowService.Result r = workflow.transition(id, state, user.role().label(), user.username());
+        return ResponseEntity.status(r.outcome().status()).build();
+    }
 
-            d.setWorkflowState(state);
-            d.setUpdatedAt(java.time.Instant.now());
-            repo.save(d);
-            String details = "from=" + cur + ";author=" + (d.getAuthor() == null ? "" : d.getAuthor());
-            auditService.record(id, actor == null ? (xuser == null ? "system" : xuser) : actor, state.toUpperCase(), details);
-            return ResponseEntity.accepted().build();
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+    /**
+     * Moves up to {@link WorkflowService#MAX_BULK} documents in one round trip. Role problems fail the whole
+     * request; per-document problems are reported in {@code results} with the same outcomes as the single call.
+     */
+    @PostMapping("/bulk/state")
+    public ResponseEntity<?> setStateBulk(@RequestBody BulkStateRequest body, @AuthenticationPrincipal UserPrincipal user) {
+        if (body == null || body.ids() == null || body.ids().isEmpty() || body.state() == null || body.ids().size() > WorkflowService.MAX_BULK) {
+            return ResponseEntity.badRequest().build();
+        }
+        String role = user.role().label();
+        WorkflowService.Outcome denied = workflow.checkRole(body.state(), role);
+        if (denied != null) return ResponseEntity.status(denied.status()).build();
+
+        List<WorkflowService.Result> results = workflow.transitionAll(body.ids(), body.state(), role, user.username());
+        long applied = results.stream().filter(r -> r.outcome() == WorkflowService.Outcome.APPLIED).count();
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("state", body.state());
+        res.put("applied", applied);
+        res.put("results", results);
+        return ResponseEntity.ok(res);
     }
 }
-
-
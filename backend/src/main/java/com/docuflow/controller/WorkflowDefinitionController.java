@@ -0,0 +1,39 @@
+package com.docuflow.controller;
+
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.workflow.WorkflowDefinition;
+import com.docuflow.workflow.WorkflowRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/workflow/definitions")
+public class WorkflowDefinitionController {
+
+    private final WorkflowRegistry registry;
+
+    public WorkflowDefinitionController(WorkflowRegistry registry) { this.registry = registry; }
+
+    @GetMapping
+    public ResponseEntity<List<WorkflowDefinition>> list() {
+        return ResponseEntity.ok(registry.definitions());
+    }
+
+    /** Creates or replaces the workflow for a document type; only Approvers may change workflows. */
+    @PutMapping("/{type}")
+    public ResponseEntity<?> save(@PathVariable String type, @RequestBody WorkflowDefinition def,
+                                  @AuthenticationPrincipal UserPrincipal user) {
+        if (!user.is(Role.APPROVER)) return ResponseEntity.status(403).build();
+        def.setId(type);
+        try {
+            return ResponseEntity.ok(registry.save(def));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
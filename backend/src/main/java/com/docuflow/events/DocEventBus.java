@@ -0,0 +1,29 @@
+package com.docuflow.events;
+
+import java.util.List;
+
+/**
+ * Transport for doc-events: {@link PulsarDocEventBus} in production, {@link InMemoryDocEventBus} on a single node
+ * without a broker ({@code app.events.bus=memory}). Handlers receive batches; a batch counts as processed only when
+ * the handler returns, otherwise it is redelivered and, after {@code app.events.max-redeliveries}, dead-lettered.
+ * Delivery is at least once, so handlers must tolerate seeing an event again.
+ */
+public interface DocEventBus {
+
+    enum Delivery {
+        /** One subscription for the whole cluster: each event is processed by one node. */
+        SHARED,
+        /** Every node sees every event published while it is up; nothing is retained or retried. */
+        BROADCAST
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(List<DocumentEvent> events) throws Exception;
+    }
+
+    /** Hands the events to the transport without waiting for the broker; failures are logged and counted. */
+    void publish(List<DocumentEvent> events);
+
+    void subscribe(String subscription, Delivery delivery, Handler handler);
+}
@@ -0,0 +1,52 @@
+package com.docuflow.events;
+
+import com.docuflow.model.Notification;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+
+/**
+ * One fact about a document, as carried on doc-events. {@code id} is unique per event and survives redelivery,
+ * so consumers use it to make their side effects idempotent. Fields that do not apply to a type are null.
+ *
+ * @param author      the document's author; for {@link Type#NOTIFIED} the notification's recipient
+ * @param fromState   state before a transition
+ * @param toState     state after a transition
+ * @param action      audit action, e.g. APPROVED, EDITED or DELETED
+ * @param message     notification text ({@link Type#NOTIFIED} only)
+ * @param refId       id of the record the event announces, e.g. the notification
+ */
+public record DocumentEvent(String id, Type type, String documentId, String actor, String author, String documentType,
+                            String fromState, String toState, String action, String message, String refId, Instant at) {
+
+    public enum Type { TRANSITIONED, DELETED, NOTIFIED, EDITED, CREATED, PREVIEWED }
+
+    public static String newId() { return new ObjectId().toHexString(); }
+
+    public static DocumentEvent transitioned(String documentId, String actor, String author, String documentType,
+                                             String fromState, String toState, String action, Instant at) {
+        return new DocumentEvent(newId(), Type.TRANSITIONED, documentId, actor, author, documentType, fromState, toState, action, null, null, at);
+    }
+
+    public static DocumentEvent created(String documentId, String author, String documentType, String state, Instant at) {
+        return new DocumentEvent(newId(), Type.CREATED, documentId, author, author, documentType, null, state, "CREATED", null, null, at);
+    }
+
+    public static DocumentEvent deleted(String documentId, String actor, String author, String documentType, String state, Instant at) {
+        return new DocumentEvent(newId(), Type.DELETED, documentId, actor, author, documentType, state, null, "DELETED", null, null, at);
+    }
+
+    public static DocumentEvent edited(String documentId, String actor, String author, String documentType, String state, Instant at) {
+        return new DocumentEvent(newId(), Type.EDITED, documentId, actor, author, documentType, state, state, "EDITED", null, null, at);
+    }
+
+    /** A file's preview was generated (or found impossible); other nodes drop the cached document. */
+    public static DocumentEvent previewed(String documentId, String author, String documentType, String state, Instant at) {
+        return new DocumentEvent(newId(), Type.PREVIEWED, documentId, null, author, documentType, state, state, null, null, null, at);
+    }
+
+    /** Announces a stored notification so every node can push it to the recipient's open streams. */
+    public static DocumentEvent notified(Notification n, String documentId) {
+        return new DocumentEvent(newId(), Type.NOTIFIED, documentId, null, n.getUsername(), null, null, null, null, n.getMessage(), n.getId(), n.getCreatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.docuflow.events;
+
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.schema.SchemaInfo;
+import org.apache.pulsar.common.schema.SchemaType;
+
+/**
+ * Pulsar schema over {@link DocumentEventCodec}. Registered as BYTES, the type doc-events always had, so producers
+ * and consumers on either side of an upgrade can share the topic; the codec's version byte tells formats apart.
+ */
+public final class DocumentEventSchema implements Schema<DocumentEvent> {
+
+    public static final DocumentEventSchema INSTANCE = new DocumentEventSchema();
+
+    private static final SchemaInfo INFO = SchemaInfo.builder()
+            .name("DocumentEvent")
+            .type(SchemaType.BYTES)
+            .schema(new byte[0])
+            .build();
+
+    private DocumentEventSchema() {}
+
+    @Override
+    public byte[] encode(DocumentEvent event) { return DocumentEventCodec.encode(event); }
+
+    @Override
+    public DocumentEvent decode(byte[] bytes) { return DocumentEventCodec.decode(bytes); }
+
+    @Override
+    public SchemaInfo getSchemaInfo() { return INFO; }
+
+    @Override
+    public Schema<DocumentEvent> clone() { return this; }
+}
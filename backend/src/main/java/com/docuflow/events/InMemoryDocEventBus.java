@@ -0,0 +1,145 @@
+package com.docuflow.events;
+
+import com.docuflow.config.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-node stand-in for Pulsar, for tests and brokerless runs. Every subscription gets its own queue and
+ * worker thread; with one node, shared and broadcast delivery are the same. Events go through the wire codec,
+ * batches are retried up to {@code max-redeliveries} times and then kept in {@link #deadLetters()}.
+ *
+ * <p>A full subscriber queue holds publishers back for up to offer-timeout, then the event is dropped and counted in
+ * {@code docuflow.events.unpublished}. Handlers that publish (previews do) never wait: their worker may be the one that
+ * has to drain the full queue.
+ */
+@Service
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "memory")
+public class InMemoryDocEventBus implements DocEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryDocEventBus.class);
+
+    private final MeterRegistry meters;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<DocumentEvent> deadLetters = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    @Value("${app.events.batch-max-messages:100}")
+    private int batchMaxMessages;
+    @Value("${app.events.batch-timeout-ms:100}")
+    private long batchTimeoutMs;
+    @Value("${app.events.max-redeliveries:5}")
+    private int maxRedeliveries;
+    @Value("${app.events.retry-delay-ms:1000}")
+    private long retryDelayMs;
+    @Value("${app.events.memory.queue-capacity:100000}")
+    private int queueCapacity;
+    @Value("${app.events.memory.offer-timeout-ms:5000}")
+    private long offerTimeoutMs;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Counter unpublished;
+
+    public InMemoryDocEventBus(MeterRegistry meters) {
+        this.meters = meters;
+        unpublished = Counter.builder("docuflow.events.unpublished").description("Doc-events dropped because a subscriber queue stayed full").register(meters);
+    }
+
+    private record Subscriber(BlockingQueue<byte[]> queue, Thread worker) {}
+
+    @Override
+    public void publish(List<DocumentEvent> events) {
+        long wait = onWorker() ? 0 : offerTimeoutMs;
+        for (Subscriber s : subscribers) {
+            for (DocumentEvent e : events) {
+                try {
+                    // waits when a subscriber falls this far behind, like a producer with blockIfQueueFull
+                    if (s.queue().offer(DocumentEventCodec.encode(e), wait, TimeUnit.MILLISECONDS)) continue;
+                    unpublished.increment();
+                    log.error("doc-events queue full, dropped {} event {} for document {}", e.type(), e.id(), e.documentId());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean onWorker() {
+        for (Subscriber s : subscribers) {
+            if (s.worker() == Thread.currentThread()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void subscribe(String subscription, Delivery delivery, Handler handler) {
+        BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(queueCapacity);
+        Thread worker = Threads.start("doc-events-" + subscription, virtualThreads, () -> drain(subscription, queue, handler));
+        subscribers.add(new Subscriber(queue, worker));
+    }
+
+    /** Events whose batch still failed after every redelivery, oldest first. */
+    public List<DocumentEvent> deadLetters() { return new ArrayList<>(deadLetters); }
+
+    private void drain(String subscription, BlockingQueue<byte[]> queue, Handler handler) {
+        Counter processed = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "processed");
+        Counter failed = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "failed");
+        Counter deadLettered = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "dead-lettered");
+        List<byte[]> raw = new ArrayList<>(batchMaxMessages);
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(batchTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                raw.add(first);
+                queue.drainTo(raw, batchMaxMessages - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<DocumentEvent> events = new ArrayList<>(raw.size());
+            for (byte[] b : raw) events.add(DocumentEventCodec.decode(b));
+            raw.clear();
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    handler.handle(events);
+                    processed.increment(events.size());
+                    break;
+                } catch (Exception e) {
+                    failed.increment(events.size());
+                    if (attempt >= maxRedeliveries) {
+                        log.error("{} doc-events dead-lettered on {}", events.size(), subscription, e);
+                        deadLetters.addAll(events);
+                        deadLettered.increment(events.size());
+                        break;
+                    }
+                    log.warn("{} doc-events failed on {}, retrying", events.size(), subscription, e);
+                    try { Thread.sleep(retryDelayMs); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); return; }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Subscriber s : subscribers) {
+            try { s.worker().join(TimeUnit.SECONDS.toMillis(5)); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+}
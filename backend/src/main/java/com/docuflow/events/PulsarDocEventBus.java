@@ -0,0 +1,304 @@
+package com.docuflow.events;
+
+import com.docuflow.config.PulsarConfig;
+import com.docuflow.config.Threads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pulsar.client.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * doc-events on Pulsar, encoded by {@link DocumentEventSchema} and LZ4-compressed per producer batch. Shared subscriptions use batchReceive, acknowledge a batch only after its handler
+ * returned, negatively acknowledge it on failure, and move events that keep failing to
+ * {@code doc-events-<subscription>-DLQ}. Broadcast subscriptions are per-node, non-durable and best effort.
+ *
+ * <p>The broker may be unreachable at startup or drop out later. Events the producer cannot take yet, or whose send
+ * failed, wait in an in-memory outbox (up to outbox-capacity) and go out once it can; producer and subscriptions
+ * that could not be created are retried every reconnect interval. Until all of them are up, health reports DOWN.
+ */
+@Service
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "pulsar", matchIfMissing = true)
+public class PulsarDocEventBus implements DocEventBus, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(PulsarDocEventBus.class);
+
+    private final PulsarClient client;
+    private final MeterRegistry meters;
+    private volatile Producer<DocumentEvent> producer;
+    private final List<Consumer<DocumentEvent>> consumers = new CopyOnWriteArrayList<>();
+    private final List<Thread> pollers = new CopyOnWriteArrayList<>();
+    // subscriptions whose consumer could not be created yet
+    private final List<Subscription> pending = new CopyOnWriteArrayList<>();
+    // events the broker has not taken yet, oldest first; guarded by itself
+    private final Deque<DocumentEvent> outbox = new ArrayDeque<>();
+    private Thread connector;
+    private volatile boolean running = true;
+
+    @Value("${app.events.batch-max-messages:100}")
+    private int batchMaxMessages;
+    @Value("${app.events.batch-timeout-ms:100}")
+    private long batchTimeoutMs;
+    @Value("${app.events.max-redeliveries:5}")
+    private int maxRedeliveries;
+    @Value("${app.events.retry-delay-ms:1000}")
+    private long retryDelayMs;
+    @Value("${app.events.outbox-capacity:100000}")
+    private int outboxCapacity;
+    @Value("${app.events.reconnect-interval-ms:5000}")
+    private long reconnectIntervalMs;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Counter unpublished;
+    private final Timer sendOk;
+    private final Timer sendFailed;
+
+    public PulsarDocEventBus(PulsarClient client, MeterRegistry meters) {
+        this.client = client;
+        this.meters = meters;
+        unpublished = Counter.builder("docuflow.events.unpublished").description("Doc-events dropped because the outbox was full or the node stopped first").register(meters);
+        sendOk = Timer.builder("docuflow.pulsar.send").tag("outcome", "success").register(meters);
+        sendFailed = Timer.builder("docuflow.pulsar.send").tag("outcome", "failure").register(meters);
+    }
+
+    private record Subscription(String name, Delivery delivery, Handler handler) {}
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("docuflow.events.outbox", outbox, q -> { synchronized (q) { return q.size(); } })
+                .description("Doc-events waiting for the broker")
+                .register(meters);
+        connectProducer();
+        connector = Threads.start("doc-events-connector", virtualThreads, this::reconnectLoop);
+    }
+
+    private void connectProducer() {
+        try {
+            producer = client.newProducer(DocumentEventSchema.INSTANCE)
+                    .topic(PulsarConfig.DOC_EVENTS_TOPIC)
+                    .compressionType(CompressionType.LZ4)
+                    .enableBatching(true)
+                    .batchingMaxMessages(batchMaxMessages)
+                    .batchingMaxPublishDelay(10, TimeUnit.MILLISECONDS)
+                    .blockIfQueueFull(true)
+                    .create();
+            log.info("doc-events producer connected");
+        } catch (PulsarClientException e) {
+            log.warn("Pulsar unavailable, holding doc-events until the producer connects: {}", e.getMessage());
+        }
+    }
+
+    /** Retries whatever is not connected yet and sends the outbox once the producer is up. */
+    private void reconnectLoop() {
+        while (running) {
+            try {
+                Thread.sleep(reconnectIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (producer == null) connectProducer();
+            for (Subscription s : pending) {
+                if (start(s)) pending.remove(s);
+            }
+            flushOutbox();
+        }
+    }
+
+    @Override
+    public void publish(List<DocumentEvent> events) {
+        Producer<DocumentEvent> p = producer;
+        synchronized (outbox) {
+            // behind events already waiting, so a recovering broker sees them in order
+            if (p == null || !outbox.isEmpty()) {
+                hold(events);
+                return;
+            }
+        }
+        send(p, events);
+    }
+
+    private void send(Producer<DocumentEvent> p, List<DocumentEvent> events) {
+        for (DocumentEvent e : events) {
+            long start = System.nanoTime();
+            p.sendAsync(e).whenComplete((id, ex) -> {
+                (ex == null ? sendOk : sendFailed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (ex == null) return;
+                log.warn("Failed to publish {} event {} for document {}, will retry", e.type(), e.id(), e.documentId(), ex);
+                synchronized (outbox) {
+                    hold(List.of(e));
+                }
+            });
+        }
+    }
+
+    /** Adds events to the outbox; the caller holds its lock. */
+    private void hold(List<DocumentEvent> events) {
+        int room = outboxCapacity - outbox.size();
+        for (int i = 0; i < events.size(); i++) {
+            if (i < room) {
+                outbox.addLast(events.get(i));
+            } else {
+                unpublished.increment(events.size() - i);
+                log.error("doc-events outbox is full, dropped {} events", events.size() - i);
+                return;
+            }
+        }
+    }
+
+    private void flushOutbox() {
+        Producer<DocumentEvent> p = producer;
+        if (p == null) return;
+        while (running) {
+            List<DocumentEvent> batch = new ArrayList<>(batchMaxMessages);
+            synchronized (outbox) {
+                while (batch.size() < batchMaxMessages && !outbox.isEmpty()) batch.add(outbox.pollFirst());
+            }
+            if (batch.isEmpty()) return;
+            send(p, batch);
+        }
+    }
+
+    @Override
+    public Health health() {
+        int held;
+        synchronized (outbox) {
+            held = outbox.size();
+        }
+        return (producer != null && pending.isEmpty() ? Health.up() : Health.down())
+                .withDetail("producer", producer != null)
+                .withDetail("pendingSubscriptions", pending.stream().map(Subscription::name).toList())
+                .withDetail("outbox", held)
+                .build();
+    }
+
+    @Override
+    public void subscribe(String subscription, Delivery delivery, Handler handler) {
+        Subscription s = new Subscription(subscription, delivery, handler);
+        if (!start(s)) pending.add(s);
+    }
+
+    /** Creates the consumer and starts its poller; false when the broker cannot be reached. */
+    private boolean start(Subscription s) {
+        String subscription = s.name();
+        Delivery delivery = s.delivery();
+        ConsumerBuilder<DocumentEvent> builder = client.newConsumer(DocumentEventSchema.INSTANCE)
+                .topic(PulsarConfig.DOC_EVENTS_TOPIC)
+                .batchReceivePolicy(BatchReceivePolicy.builder()
+                        .maxNumMessages(batchMaxMessages)
+                        .timeout((int) batchTimeoutMs, TimeUnit.MILLISECONDS)
+                        .build());
+        if (delivery == Delivery.SHARED) {
+            builder.subscriptionName(subscription)
+                    .subscriptionType(SubscriptionType.Shared)
+                    .negativeAckRedeliveryDelay(retryDelayMs, TimeUnit.MILLISECONDS)
+                    .deadLetterPolicy(DeadLetterPolicy.builder()
+                            .maxRedeliverCount(maxRedeliveries)
+                            .deadLetterTopic(PulsarConfig.DOC_EVENTS_TOPIC + "-" + subscription + "-DLQ")
+                            .build());
+        } else {
+            builder.subscriptionName(subscription + "-" + UUID.randomUUID())
+                    .subscriptionType(SubscriptionType.Exclusive)
+                    .subscriptionMode(SubscriptionMode.NonDurable)
+                    .subscriptionInitialPosition(SubscriptionInitialPosition.Latest);
+        }
+        Consumer<DocumentEvent> consumer;
+        try {
+            consumer = builder.subscribe();
+        } catch (PulsarClientException e) {
+            log.warn("Pulsar unavailable, doc-events subscription {} will be retried: {}", subscription, e.getMessage());
+            return false;
+        }
+        consumers.add(consumer);
+        pollers.add(Threads.start("doc-events-" + subscription, virtualThreads, () -> poll(consumer, subscription, delivery, s.handler())));
+        log.info("doc-events subscription {} started", subscription);
+        return true;
+    }
+
+    private void poll(Consumer<DocumentEvent> consumer, String subscription, Delivery delivery, Handler handler) {
+        Counter processed = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "processed");
+        Counter failed = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "failed");
+        Counter undecodable = meters.counter("docuflow.events.consumed", "subscription", subscription, "outcome", "undecodable");
+        Timer handling = meters.timer("docuflow.events.handle", "subscription", subscription);
+        while (running) {
+            Messages<DocumentEvent> messages;
+            try {
+                messages = consumer.batchReceive();
+            } catch (PulsarClientException e) {
+                if (!running) return;
+                log.warn("doc-events receive failed on {}", subscription, e);
+                continue;
+            }
+            List<DocumentEvent> events = new ArrayList<>(messages.size());
+            List<MessageId> ids = new ArrayList<>(messages.size());
+            for (Message<DocumentEvent> m : messages) {
+                try {
+                    events.add(m.getValue());
+                    ids.add(m.getMessageId());
+                } catch (RuntimeException e) {
+                    // the schema's decode failure, possibly wrapped by the client; retrying cannot make it readable
+                    undecodable.increment();
+                    log.warn("Skipping unreadable doc-event {} on {}", m.getMessageId(), subscription);
+                    consumer.acknowledgeAsync(m.getMessageId());
+                }
+            }
+            if (ids.isEmpty()) continue;
+            try {
+                handling.recordCallable(() -> { handler.handle(events); return null; });
+                processed.increment(events.size());
+            } catch (Exception e) {
+                failed.increment(events.size());
+                if (delivery == Delivery.SHARED) {
+                    log.warn("{} doc-events failed on {}, redelivering", events.size(), subscription, e);
+                    ids.forEach(consumer::negativeAcknowledge);
+                    continue;
+                }
+                log.warn("{} doc-events failed on broadcast subscription {}, dropped", events.size(), subscription, e);
+            }
+            consumer.acknowledgeAsync(ids).exceptionally(ex -> {
+                log.warn("Failed to acknowledge {} doc-events on {}", ids.size(), subscription, ex);
+                return null;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // the last outbox flush has to happen while the send loop still runs
+        flushOutbox();
+        running = false;
+        if (connector != null) connector.interrupt();
+        // pollers wake within one batch timeout; let an in-flight batch finish and acknowledge before closing
+        for (Thread t : pollers) {
+            try { t.join(TimeUnit.SECONDS.toMillis(5)); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        for (Consumer<DocumentEvent> c : consumers) {
+            try { c.close(); } catch (PulsarClientException e) { log.warn("Failed to close doc-events consumer {}", c.getSubscription(), e); }
+        }
+        try { if (producer != null) producer.flush(); } catch (PulsarClientException e) { log.warn("Failed to flush doc-events producer", e); }
+        try { if (producer != null) producer.close(); } catch (PulsarClientException e) { log.warn("Failed to close doc-events producer", e); }
+        synchronized (outbox) {
+            if (!outbox.isEmpty()) {
+                unpublished.increment(outbox.size());
+                log.error("Shutting down with {} doc-events the broker never took", outbox.size());
+            }
+        }
+    }
+}
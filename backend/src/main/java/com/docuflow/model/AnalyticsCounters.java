@@ -0,0 +1,28 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Running document counts per workflow state, one document with {@link #ID}; keys escaped like {@link AnalyticsDay}.
+ * {@code asOf} is the watermark of the last rebuild: events stamped at or before it are already in the numbers.
+ */
+@Document("analytics_counters")
+public class AnalyticsCounters {
+    public static final String ID = "states";
+
+    @Id
+    private String id;
+    private Map<String, Long> states;
+    private Instant asOf;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Map<String, Long> getStates() { return states; }
+    public void setStates(Map<String, Long> states) { this.states = states; }
+    public Instant getAsOf() { return asOf; }
+    public void setAsOf(Instant asOf) { this.asOf = asOf; }
+}
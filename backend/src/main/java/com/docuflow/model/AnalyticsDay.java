@@ -0,0 +1,50 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * Rollup of one UTC day of document activity, keyed by the day as yyyy-MM-dd. Map keys are actions, actors or
+ * states, stored escaped (see {@code AnalyticsDelta#key}) so they can be used in update paths.
+ */
+@Document("analytics_daily")
+public class AnalyticsDay {
+    @Id
+    private String id;
+    private long created;
+    private long edited;
+    private long deleted;
+    private Map<String, Long> actions; // transitions per workflow action
+    private Map<String, Long> actors; // transitions per acting user
+    private Map<String, Turnaround> turnaround; // time from document creation to each action
+
+    public static class Turnaround {
+        private long count;
+        private long totalMs;
+        private long maxMs;
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+        public long getTotalMs() { return totalMs; }
+        public void setTotalMs(long totalMs) { this.totalMs = totalMs; }
+        public long getMaxMs() { return maxMs; }
+        public void setMaxMs(long maxMs) { this.maxMs = maxMs; }
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public long getCreated() { return created; }
+    public void setCreated(long created) { this.created = created; }
+    public long getEdited() { return edited; }
+    public void setEdited(long edited) { this.edited = edited; }
+    public long getDeleted() { return deleted; }
+    public void setDeleted(long deleted) { this.deleted = deleted; }
+    public Map<String, Long> getActions() { return actions; }
+    public void setActions(Map<String, Long> actions) { this.actions = actions; }
+    public Map<String, Long> getActors() { return actors; }
+    public void setActors(Map<String, Long> actors) { this.actors = actors; }
+    public Map<String, Turnaround> getTurnaround() { return turnaround; }
+    public void setTurnaround(Map<String, Turnaround> turnaround) { this.turnaround = turnaround; }
+}
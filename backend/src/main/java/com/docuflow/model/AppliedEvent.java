@@ -0,0 +1,28 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Marks a doc-event as counted by analytics so a redelivery is not counted twice. Expires after a week. */
+@Document("analytics_applied")
+public class AppliedEvent {
+    @Id
+    private String id; // the event id
+    @Indexed(expireAfter = "7d")
+    private Instant at;
+
+    public AppliedEvent() {}
+
+    public AppliedEvent(String id, Instant at) {
+        this.id = id;
+        this.at = at;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Instant getAt() { return at; }
+    public void setAt(Instant at) { this.at = at; }
+}
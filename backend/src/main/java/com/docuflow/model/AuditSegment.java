@@ -0,0 +1,47 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Archived audits from one UTC day, oldest first, packed column by column and deflated. The distinct document
+ * ids and actors are kept alongside so audit queries can find the segments worth decoding through an index.
+ */
+@Document("audit_archive")
+@CompoundIndexes({
+        @CompoundIndex(name = "documentIds_to", def = "{'documentIds': 1, 'to': -1}"),
+        @CompoundIndex(name = "actors_to", def = "{'actors': 1, 'to': -1}")
+})
+public class AuditSegment {
+    @Id
+    private String id; // day:first audit id, so re-archiving the same records replaces the segment
+    private String day;
+    private Instant from; // first and last audit time in the segment
+    private Instant to;
+    private int count;
+    private List<String> documentIds;
+    private List<String> actors;
+    private byte[] data;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getDay() { return day; }
+    public void setDay(String day) { this.day = day; }
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    public List<String> getDocumentIds() { return documentIds; }
+    public void setDocumentIds(List<String> documentIds) { this.documentIds = documentIds; }
+    public List<String> getActors() { return actors; }
+    public void setActors(List<String> actors) { this.actors = actors; }
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
@@ -1,11 +1,20 @@
 package com.docuflow.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document("document_audits")
+@CompoundIndexes({
+        // keyset pagination walks (at desc, _id desc) within a document or an actor
+        @CompoundIndex(name = "documentId_at", def = "{'documentId': 1, 'at': -1, '_id': -1}"),
+        @CompoundIndex(name = "actor_at", def = "{'actor': 1, 'at': -1, '_id': -1}"),
+        // the archiver takes the oldest audits first
+        @CompoundIndex(name = "at", def = "{'at': 1, '_id': 1}")
+})
 public class DocumentAudit {
     @Id
     private String id;
@@ -28,5 +37,3 @@ public class DocumentAudit {
     public String getDetails() { return details; }
     public void setDetails(String details) { this.details = details; }
 }
-
-
@@ -0,0 +1,12 @@
+package com.docuflow.model;
+
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+/** A search result: the list-view projection plus its text relevance score. */
+public class DocumentHit extends DocumentSummary {
+    @TextScore
+    private Float score;
+
+    public Float getScore() { return score; }
+    public void setScore(Float score) { this.score = score; }
+}
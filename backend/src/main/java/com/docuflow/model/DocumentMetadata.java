@@ -1,23 +1,56 @@
 package com.docuflow.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @Document("documents")
+@CompoundIndexes({
+        // keyset listing walks (updatedAt desc, _id desc), optionally narrowed by one equality filter
+        @CompoundIndex(name = "updatedAt", def = "{'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "author_updatedAt", def = "{'author': 1, 'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "workflowState_updatedAt", def = "{'workflowState': 1, 'updatedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "tags_updatedAt", def = "{'tags': 1, 'updatedAt': -1, '_id': -1}"),
+        // previews still to generate; only file-backed documents have one
+        @CompoundIndex(name = "preview_status_createdAt", def = "{'preview.status': 1, 'createdAt': 1}", partialFilter = "{'fileId': {$exists: true}}")
+})
 public class DocumentMetadata {
     @Id
     private String id;
+    // the collection's single text index; weights rank title matches over tag and body matches
+    @TextIndexed(weight = 5)
     private String title;
     private String author;
     private Instant createdAt;
     private Instant updatedAt;
+    private String documentType; // selects the workflow definition; null means "default"
     private String workflowState; // Draft, Submitted, Under Review, Approved, Rejected
+    @TextIndexed(weight = 3)
     private List<String> tags;
-    // For demo purposes, we keep a small content field to simulate uploaded content or a pointer
+    // inline text of documents created without a file; file-backed documents have a preview instead
     private String content;
+    // content revision; older ones are rebuilt from document_versions (0 on documents stored before versioning means 1)
+    private int contentVersion;
+    private Instant contentUpdatedAt;
+    private String contentUpdatedBy;
+    // pointer into the FileStore; the bytes themselves never live on this document
+    private String fileId;
+    private String fileName;
+    private String contentType;
+    private long fileSize;
+    private String contentHash; // SHA-256 of the file bytes, key of the shared StoredBlob
+    private PreviewRef preview;
+    // text extracted at upload, only for the search index; never sent to clients
+    @TextIndexed
+    @JsonIgnore
+    private String searchText;
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -29,12 +62,59 @@ public class DocumentMetadata {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public String getDocumentType() { return documentType; }
+    public void setDocumentType(String documentType) { this.documentType = documentType; }
     public String getWorkflowState() { return workflowState; }
     public void setWorkflowState(String workflowState) { this.workflowState = workflowState; }
     public List<String> getTags() { return tags; }
     public void setTags(List<String> tags) { this.tags = tags; }
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
+    public int getContentVersion() { return contentVersion; }
+    public void setContentVersion(int contentVersion) { this.contentVersion = contentVersion; }
+    public Instant getContentUpdatedAt() { return contentUpdatedAt; }
+    public void setContentUpdatedAt(Instant contentUpdatedAt) { this.contentUpdatedAt = contentUpdatedAt; }
+    public String getContentUpdatedBy() { return contentUpdatedBy; }
+    public void setContentUpdatedBy(String contentUpdatedBy) { this.contentUpdatedBy = contentUpdatedBy; }
+    public String getFileId() { return fileId; }
+    public void setFileId(String fileId) { this.fileId = fileId; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public PreviewRef getPreview() { return preview; }
+    public void setPreview(PreviewRef preview) { this.preview = preview; }
+    public String getSearchText() { return searchText; }
+    public void setSearchText(String searchText) { this.searchText = searchText; }
+
+    /** A copy that shares nothing mutable with this one; the documents cache hands these out. */
+    public DocumentMetadata copy() {
+        DocumentMetadata c = new DocumentMetadata();
+        c.id = id;
+        c.title = title;
+        c.author = author;
+        c.createdAt = createdAt;
+        c.updatedAt = updatedAt;
+        c.documentType = documentType;
+        c.workflowState = workflowState;
+        c.tags = tags == null ? null : new ArrayList<>(tags);
+        c.content = content;
+        c.contentVersion = contentVersion;
+        c.contentUpdatedAt = contentUpdatedAt;
+        c.contentUpdatedBy = contentUpdatedBy;
+        c.fileId = fileId;
+        c.fileName = fileName;
+        c.contentType = contentType;
+        c.fileSize = fileSize;
+        c.contentHash = contentHash;
+        c.preview = preview == null ? null : preview.copy();
+        c.searchText = searchText;
+        return c;
+    }
 }
 
 
@@ -0,0 +1,36 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Generated preview of a file-backed document, kept out of {@link DocumentMetadata}; {@code id} is the document id. */
+@Document("document_previews")
+public class DocumentPreview {
+    @Id
+    private String id;
+    // first page of extracted text, for text formats
+    private String text;
+    // scaled-down image, for image formats
+    private byte[] thumbnail;
+    private String thumbnailType;
+    private int thumbnailWidth;
+    private int thumbnailHeight;
+    private Instant createdAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    public byte[] getThumbnail() { return thumbnail; }
+    public void setThumbnail(byte[] thumbnail) { this.thumbnail = thumbnail; }
+    public String getThumbnailType() { return thumbnailType; }
+    public void setThumbnailType(String thumbnailType) { this.thumbnailType = thumbnailType; }
+    public int getThumbnailWidth() { return thumbnailWidth; }
+    public void setThumbnailWidth(int thumbnailWidth) { this.thumbnailWidth = thumbnailWidth; }
+    public int getThumbnailHeight() { return thumbnailHeight; }
+    public void setThumbnailHeight(int thumbnailHeight) { this.thumbnailHeight = thumbnailHeight; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,50 @@
+package com.docuflow.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/** List-view projection of {@link DocumentMetadata}; deliberately has no {@code content}. */
+public class DocumentSummary {
+    public static final String[] FIELDS = {"title", "author", "createdAt", "updatedAt", "documentType", "workflowState", "tags", "fileName", "contentType", "fileSize", "contentHash", "preview"};
+
+    private String id;
+    private String title;
+    private String author;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private String documentType;
+    private String workflowState;
+    private List<String> tags;
+    private String fileName;
+    private String contentType;
+    private long fileSize;
+    private String contentHash;
+    private PreviewRef preview;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public String getDocumentType() { return documentType; }
+    public void setDocumentType(String documentType) { this.documentType = documentType; }
+    public String getWorkflowState() { return workflowState; }
+    public void setWorkflowState(String workflowState) { this.workflowState = workflowState; }
+    public List<String> getTags() { return tags; }
+    public void setTags(List<String> tags) { this.tags = tags; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public PreviewRef getPreview() { return preview; }
+    public void setPreview(PreviewRef preview) { this.preview = preview; }
+}
@@ -0,0 +1,43 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A superseded revision of a document's content. The latest content lives on {@link DocumentMetadata}; each older
+ * version is stored as a delta that rebuilds it from the next newer one, or, every few versions, as a full snapshot
+ * so rebuilding an old version never walks the whole history.
+ */
+@Document("document_versions")
+@CompoundIndex(name = "documentId_version", def = "{'documentId': 1, 'version': 1}", unique = true)
+public class DocumentVersion {
+    @Id
+    private String id;
+    private String documentId;
+    private int version;
+    private boolean snapshot; // data is the full UTF-8 content rather than a delta from version + 1
+    private byte[] data;
+    private int size; // bytes of content at this version
+    private String author; // who wrote this version
+    private Instant createdAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getDocumentId() { return documentId; }
+    public void setDocumentId(String documentId) { this.documentId = documentId; }
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    public boolean isSnapshot() { return snapshot; }
+    public void setSnapshot(boolean snapshot) { this.snapshot = snapshot; }
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
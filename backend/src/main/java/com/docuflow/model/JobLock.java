@@ -0,0 +1,22 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** Lease that keeps a scheduled job to one node at a time; {@code id} is the job name. */
+@Document("job_locks")
+public class JobLock {
+    @Id
+    private String id;
+    private String owner;
+    private Instant until;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    public Instant getUntil() { return until; }
+    public void setUntil(Instant until) { this.until = until; }
+}
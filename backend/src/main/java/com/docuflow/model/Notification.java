@@ -1,11 +1,20 @@
 package com.docuflow.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document("notifications")
+@CompoundIndexes({
+        // unread badge and unread-only inbox
+        @CompoundIndex(name = "username_read_createdAt", def = "{'username': 1, 'read': 1, 'createdAt': -1, '_id': -1}"),
+        // full inbox, newest first
+        @CompoundIndex(name = "username_createdAt", def = "{'username': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Notification {
     @Id
     private String id;
@@ -13,6 +22,9 @@ public class Notification {
     private String message;
     private boolean read;
     private Instant createdAt;
+    // set when marked read; read notifications expire 30 days later, unread ones are kept
+    @Indexed(name = "readAt_ttl", expireAfter = "30d")
+    private Instant readAt;
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -24,4 +36,6 @@ public class Notification {
     public void setRead(boolean read) { this.read = read; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getReadAt() { return readAt; }
+    public void setReadAt(Instant readAt) { this.readAt = readAt; }
 }
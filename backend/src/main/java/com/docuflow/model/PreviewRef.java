@@ -0,0 +1,50 @@
+package com.docuflow.model;
+
+import java.time.Instant;
+
+/**
+ * What document and list responses say about a file's preview. The preview itself lives in document_previews
+ * and is served by {@code /api/documents/{id}/preview}; inline-text documents have none.
+ */
+public class PreviewRef {
+
+    public enum Status {
+        /** Queued or being generated. */
+        PENDING,
+        READY,
+        /** Nothing to show for this format, or the file is too large to preview. */
+        NONE,
+        /** The file could not be decoded, or reading it kept failing. */
+        FAILED
+    }
+
+    private Status status;
+    private boolean thumbnail;
+    private int attempts; // failed generation attempts while pending
+    private Instant lastAttemptAt;
+
+    public PreviewRef() {}
+
+    public PreviewRef(Status status, boolean thumbnail) {
+        this.status = status;
+        this.thumbnail = thumbnail;
+    }
+
+    public static PreviewRef pending() { return new PreviewRef(Status.PENDING, false); }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public boolean isThumbnail() { return thumbnail; }
+    public void setThumbnail(boolean thumbnail) { this.thumbnail = thumbnail; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public Instant getLastAttemptAt() { return lastAttemptAt; }
+    public void setLastAttemptAt(Instant lastAttemptAt) { this.lastAttemptAt = lastAttemptAt; }
+
+    public PreviewRef copy() {
+        PreviewRef c = new PreviewRef(status, thumbnail);
+        c.attempts = attempts;
+        c.lastAttemptAt = lastAttemptAt;
+        return c;
+    }
+}
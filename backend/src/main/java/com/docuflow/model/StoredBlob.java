@@ -0,0 +1,38 @@
+package com.docuflow.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/** One stored copy of an uploaded file, keyed by the SHA-256 of its bytes and shared by every document that references it. */
+@Document("blobs")
+public class StoredBlob {
+    @Id
+    private String id; // lowercase hex SHA-256
+    private String fileId;
+    private String contentType;
+    private long length;
+    private long refCount;
+    private Instant createdAt;
+    // users who sent these bytes; only they may reuse the blob by hash alone
+    @JsonIgnore
+    private List<String> uploaders;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFileId() { return fileId; }
+    public void setFileId(String fileId) { this.fileId = fileId; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public long getLength() { return length; }
+    public void setLength(long length) { this.length = length; }
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public List<String> getUploaders() { return uploaders; }
+    public void setUploaders(List<String> uploaders) { this.uploaders = uploaders; }
+}
@@ -0,0 +1,20 @@
+package com.docuflow.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** A login; {@code id} is the username, {@code passwordHash} is in PasswordEncoder's {id}hash form. */
+@Document("users")
+public class UserAccount {
+    @Id
+    private String id;
+    private String passwordHash;
+    private String role;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPasswordHash() { return passwordHash; }
+    public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+}
@@ -0,0 +1,150 @@
+package com.docuflow.preview;
+
+import com.docuflow.service.TextExtractor;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds previews from the start of a file: the first page of text for the formats {@link TextExtractor}
+ * understands, and a thumbnail for images ImageIO can decode. Large images are subsampled while they are
+ * decoded, so the full-resolution bitmap never exists on the heap. Other formats have no preview.
+ */
+public final class PreviewGenerator {
+
+    /** Bump when the output changes; it is part of every preview ETag, so clients refetch. */
+    public static final int VERSION = 1;
+    public static final int PAGE_CHARS = 3000;
+    public static final int PAGE_LINES = 60;
+    public static final int THUMBNAIL_SIZE = 256;
+    /** Larger images get no thumbnail rather than a worker holding them in memory. */
+    public static final int MAX_IMAGE_BYTES = 32 * 1024 * 1024;
+    static final long MAX_PIXELS = 200_000_000L;
+    // a page of text in any encoding fits in this many bytes
+    static final int TEXT_BYTES = 4 * PAGE_CHARS;
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+
+    public record Preview(String text, byte[] thumbnail, String thumbnailType, int width, int height) {
+        public boolean isEmpty() { return text == null && thumbnail == null; }
+    }
+
+    static final Preview EMPTY = new Preview(null, null, null, 0, 0);
+
+    private PreviewGenerator() {}
+
+    /**
+     * Reads what the preview needs from {@code in}. IOExceptions are failures to read the file and worth a
+     * retry; content that cannot be decoded is an IllegalArgumentException.
+     */
+    public static Preview generate(InputStream in, String contentType, String fileName) throws IOException {
+        if (TextExtractor.supports(contentType, fileName)) {
+            String page = firstPage(in.readNBytes(TEXT_BYTES), contentType, fileName);
+            return page == null ? EMPTY : new Preview(page, null, null, 0, 0);
+        }
+        if (isImage(contentType, fileName)) {
+            byte[] bytes = in.readNBytes(MAX_IMAGE_BYTES + 1);
+            return bytes.length > MAX_IMAGE_BYTES ? EMPTY : thumbnail(bytes);
+        }
+        return EMPTY;
+    }
+
+    static boolean isImage(String contentType, String fileName) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("image/")) return true;
+        if (fileName == null) return false;
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && IMAGE_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** Up to {@link #PAGE_LINES} lines and {@link #PAGE_CHARS} characters; markup formats come back as flowed text. */
+    static String firstPage(byte[] head, String contentType, String fileName) {
+        String text;
+        if (isMarkup(contentType, fileName)) {
+            text = TextExtractor.extract(head, contentType, fileName);
+            if (text == null) return null;
+        } else {
+            text = new String(head, StandardCharsets.UTF_8);
+            // the head may end inside a multi-byte character
+            int end = text.length();
+            while (end > 0 && text.charAt(end - 1) == '\uFFFD') end--;
+            text = text.substring(0, end);
+        }
+        int cut = Math.min(text.length(), PAGE_CHARS);
+        int lines = 0;
+        for (int i = 0; i < cut; i++) {
+            if (text.charAt(i) == '\n' && ++lines == PAGE_LINES) {
+                cut = i;
+                break;
+            }
+        }
+        String page = text.substring(0, cut).stripTrailing();
+        return page.isBlank() ? null : page;
+    }
+
+    private static boolean isMarkup(String contentType, String fileName) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        return type.contains("html") || type.contains("xml") || (fileName != null && fileName.matches("(?i).*\\.(html?|xml)$"));
+    }
+
+    /** Fits the image into {@link #THUMBNAIL_SIZE} square: JPEG when opaque, PNG when it has transparency. */
+    static Preview thumbnail(byte[] bytes) {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            // e.g. WebP or HEIC: no decoder in the JDK
+            if (!readers.hasNext()) return EMPTY;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if (w <= 0 || h <= 0) throw new IllegalArgumentException("empty image");
+                if ((long) w * h > MAX_PIXELS) return EMPTY;
+                // decode every step-th pixel, leaving about twice the thumbnail size for a smooth downscale
+                int step = Math.max(1, Math.max(w, h) / (2 * THUMBNAIL_SIZE));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scale(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // ImageIO reports corrupt input as IIOException and, from some decoders, as runtime exceptions
+            if (e instanceof IllegalArgumentException iae) throw iae;
+            throw new IllegalArgumentException("unreadable image", e);
+        }
+    }
+
+    private static Preview scale(BufferedImage src) throws IOException {
+        double f = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(src.getWidth(), src.getHeight()));
+        int tw = Math.max(1, (int) Math.round(src.getWidth() * f));
+        int th = Math.max(1, (int) Math.round(src.getHeight() * f));
+        boolean alpha = src.getColorModel().hasAlpha();
+        BufferedImage dst = new BufferedImage(tw, th, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, tw, th, null);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        String format = alpha ? "png" : "jpeg";
+        if (!ImageIO.write(dst, format, out)) throw new IOException("no ImageIO writer for " + format);
+        return new Preview(null, out.toByteArray(), "image/" + format, tw, th);
+    }
+}
@@ -0,0 +1,235 @@
+package com.docuflow.preview;
+
+import com.docuflow.config.Threads;
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentPreview;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.repository.DocumentPreviewRepository;
+import com.docuflow.repository.DocumentRepository;
+import com.docuflow.repository.JobLockRepository;
+import com.docuflow.storage.FileStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates previews off the upload path. Uploads store the document with a PENDING preview and publish CREATED;
+ * a shared doc-event subscription hands each batch to a fixed pool of workers and acks it once they are done, so
+ * previews are spread over the cluster and retried by redelivery when reading the file fails. A periodic sweep
+ * picks up whatever is still pending after {@code stale-after}, plus file-backed documents uploaded before
+ * previews existed, whose Base64 head is dropped from {@code content} as they are processed. Every failed attempt
+ * is counted on the document; after {@code max-attempts} the preview is marked FAILED, and the sweep passes over
+ * documents that failed within the last {@code stale-after}.
+ */
+@Service
+public class PreviewService {
+
+    static final String SUBSCRIPTION = "previews";
+    static final String JOB = "previews-backfill";
+
+    private static final Logger log = LoggerFactory.getLogger(PreviewService.class);
+
+    private final DocEventBus bus;
+    private final DocumentRepository repo;
+    private final DocumentPreviewRepository previews;
+    private final FileStore fileStore;
+    private final JobLockRepository locks;
+    private final MeterRegistry meters;
+    private final String owner = UUID.randomUUID().toString();
+    private ExecutorService workers;
+
+    @Value("${app.previews.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.previews.workers:2}")
+    private int workerCount;
+
+    @Value("${app.previews.stale-after:PT5M}")
+    private Duration staleAfter;
+
+    @Value("${app.previews.backfill-batch:100}")
+    private int backfillBatch;
+
+    @Value("${app.previews.lease:PT5M}")
+    private Duration lease;
+
+    @Value("${app.previews.max-attempts:5}")
+    private int maxAttempts;
+
+    public PreviewService(DocEventBus bus, DocumentRepository repo, DocumentPreviewRepository previews, FileStore fileStore,
+                          JobLockRepository locks, MeterRegistry meters) {
+        this.bus = bus;
+        this.repo = repo;
+        this.previews = previews;
+        this.fileStore = fileStore;
+        this.locks = locks;
+        this.meters = meters;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+        // decoding is CPU and memory bound, so the pool stays small and on platform threads even in virtual mode
+        workers = Executors.newFixedThreadPool(Math.max(1, workerCount), Threads.factory("preview-", false));
+        bus.subscribe(SUBSCRIPTION, DocEventBus.Delivery.SHARED, this::onEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) workers.shutdownNow();
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /** Strong validator for a READY preview: it only changes with the file's bytes or the generator. */
+    public static String etag(DocumentMetadata d) {
+        String content = d.getContentHash() != null ? d.getContentHash() : d.getFileId();
+        return "\"" + content + "-" + PreviewGenerator.VERSION + "\"";
+    }
+
+    public void delete(String documentId) {
+        previews.deleteById(documentId);
+    }
+
+    void onEvents(List<DocumentEvent> events) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (DocumentEvent e : events) {
+            if (e.type() == DocumentEvent.Type.CREATED && e.documentId() != null) ids.add(e.documentId());
+        }
+        if (ids.isEmpty()) return;
+        List<Exception> failures = generateAll(ids);
+        // redelivered; documents that failed too often are FAILED by now and skipped
+        if (!failures.isEmpty()) throw failures.get(0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.previews.backfill-interval-ms:60000}", initialDelayString = "${app.previews.backfill-interval-ms:60000}")
+    public void backfill() {
+        if (!enabled || !locks.acquire(JOB, owner, Instant.now().plus(lease))) return;
+        int total = 0;
+        int failed = 0;
+        try {
+            while (true) {
+                List<DocumentMetadata> batch = repo.findPreviewBacklog(Instant.now().minus(staleAfter), backfillBatch);
+                if (batch.isEmpty()) break;
+                List<String> ids = new ArrayList<>(batch.size());
+                for (DocumentMetadata d : batch) ids.add(d.getId());
+                failed += generateAll(ids).size();
+                total += ids.size();
+                if (batch.size() < backfillBatch || !locks.acquire(JOB, owner, Instant.now().plus(lease))) break;
+            }
+        } catch (Exception e) {
+            // whatever is left stays pending and is retried on the next sweep
+            log.warn("Preview backfill stopped after {} documents", total, e);
+        } finally {
+            locks.release(JOB, owner);
+        }
+        if (total > 0) log.info("Processed {} backlogged previews, {} failed", total, failed);
+    }
+
+    /** Runs the documents through the worker pool and waits for all of them; returns the failures. */
+    List<Exception> generateAll(List<String> ids) throws InterruptedException {
+        List<Future<?>> pending = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            pending.add(workers.submit(() -> {
+                attempt(id);
+                return null;
+            }));
+        }
+        List<Exception> failures = new ArrayList<>();
+        for (Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause() instanceof Exception cause ? cause : e);
+            }
+        }
+        return failures;
+    }
+
+    private void attempt(String id) throws IOException {
+        try {
+            generate(id);
+        } catch (IOException | RuntimeException e) {
+            PreviewRef ref = repo.recordPreviewAttempt(id, Instant.now());
+            if (ref != null && ref.getAttempts() >= maxAttempts) giveUp(id, ref.getAttempts(), e);
+            throw e;
+        }
+    }
+
+    private void giveUp(String id, int attempts, Exception cause) {
+        log.warn("Giving up on the preview of {} after {} attempts", id, attempts, cause);
+        if (!repo.setPreview(id, new PreviewRef(PreviewRef.Status.FAILED, false))) return;
+        repo.findById(id).ifPresent(d -> bus.publish(List.of(
+                DocumentEvent.previewed(id, d.getAuthor(), d.getDocumentType(), d.getWorkflowState(), Instant.now()))));
+    }
+
+    void generate(String id) throws IOException {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null || d.getFileId() == null) return;
+        // already handled, e.g. a redelivered event
+        if (d.getPreview() != null && d.getPreview().getStatus() != PreviewRef.Status.PENDING) return;
+
+        Timer.Sample sample = Timer.start(meters);
+        PreviewRef ref;
+        Resource file = fileStore.load(d.getFileId());
+        if (file == null) {
+            ref = new PreviewRef(PreviewRef.Status.FAILED, false);
+        } else {
+            PreviewGenerator.Preview p;
+            try (InputStream in = file.getInputStream()) {
+                p = PreviewGenerator.generate(in, d.getContentType(), d.getFileName());
+            } catch (IllegalArgumentException e) {
+                log.debug("Cannot preview {} ({})", id, d.getContentType(), e);
+                p = null;
+            }
+            if (p == null) {
+                ref = new PreviewRef(PreviewRef.Status.FAILED, false);
+            } else if (p.isEmpty()) {
+                ref = new PreviewRef(PreviewRef.Status.NONE, false);
+            } else {
+                previews.save(preview(id, p));
+                ref = new PreviewRef(PreviewRef.Status.READY, p.thumbnail() != null);
+            }
+        }
+        if (!repo.setPreview(id, ref)) {
+            // deleted while we were working
+            previews.deleteById(id);
+            return;
+        }
+        sample.stop(meters.timer("docuflow.previews.generate", "status", ref.getStatus().name()));
+        bus.publish(List.of(DocumentEvent.previewed(id, d.getAuthor(), d.getDocumentType(), d.getWorkflowState(), Instant.now())));
+    }
+
+    private static DocumentPreview preview(String id, PreviewGenerator.Preview p) {
+        DocumentPreview dp = new DocumentPreview();
+        dp.setId(id);
+        dp.setText(p.text());
+        dp.setThumbnail(p.thumbnail());
+        dp.setThumbnailType(p.thumbnailType());
+        dp.setThumbnailWidth(p.width());
+        dp.setThumbnailHeight(p.height());
+        dp.setCreatedAt(Instant.now());
+        return dp;
+    }
+}
@@ -0,0 +1,16 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.AnalyticsDay;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnalyticsRepository extends MongoRepository<AnalyticsDay, String>, AnalyticsRepositoryCustom {
+
+    /** Days {@code from} to {@code to} (yyyy-MM-dd, inclusive), oldest first; days without activity have no document. */
+    @Query(value = "{ '_id': { $gte: ?0, $lte: ?1 } }", sort = "{ '_id': 1 }")
+    List<AnalyticsDay> findDays(String from, String to);
+}
@@ -0,0 +1,35 @@
+package com.docuflow.repository;
+
+import com.docuflow.analytics.AnalyticsDelta;
+import com.docuflow.model.AnalyticsCounters;
+import com.docuflow.model.AppliedEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface AnalyticsRepositoryCustom {
+
+    /** Null until the first event is counted or a rebuild has run. */
+    AnalyticsCounters counters();
+
+    /** Records the events as counted and returns the ids that were not recorded before. */
+    Set<String> markApplied(List<AppliedEvent> events);
+
+    /** Forgets the given event ids again, so a redelivery counts them; used when applying their delta failed. */
+    void unmarkApplied(Collection<String> ids);
+
+    /** Applies the delta: one upsert of the state counters and one bulkWrite with an upsert per day touched. */
+    void apply(AnalyticsDelta delta);
+
+    /**
+     * Recomputes everything from the source collections: state counts from documents and the daily rollups from the
+     * audits stamped at or before {@code asOf} in document_audits and the audit archive, then replaces the stored
+     * counters and days and records {@code asOf} as the watermark. Documents older than the first CREATED audit
+     * predate those audits and are counted from their createdAt. The days are written to a staging collection that
+     * is renamed over the live one. Callers make sure only one rebuild runs at a time and that no deltas are applied
+     * meanwhile. Returns the number of days written.
+     */
+    int rebuild(Instant asOf);
+}
@@ -0,0 +1,247 @@
+package com.docuflow.repository;
+
+import com.docuflow.analytics.AnalyticsDelta;
+import com.docuflow.model.AnalyticsCounters;
+import com.docuflow.model.AnalyticsDay;
+import com.docuflow.model.AppliedEvent;
+import com.docuflow.model.AuditSegment;
+import com.docuflow.model.DocumentAudit;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.retention.AuditSegmentCodec;
+import com.mongodb.MongoNamespace;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class AnalyticsRepositoryImpl implements AnalyticsRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String STAGING = "_rebuild";
+
+    private final MongoTemplate mongo;
+
+    AnalyticsRepositoryImpl(MongoTemplate mongo) { this.mongo = mongo; }
+
+    @Override
+    public AnalyticsCounters counters() {
+        return mongo.findById(AnalyticsCounters.ID, AnalyticsCounters.class);
+    }
+
+    @Override
+    public Set<String> markApplied(List<AppliedEvent> events) {
+        Set<String> fresh = new HashSet<>();
+        if (events.isEmpty()) return fresh;
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, AppliedEvent.class);
+        ops.insert(events);
+        Set<Integer> duplicates = new HashSet<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) throw e;
+                duplicates.add(error.getIndex());
+            }
+        }
+        for (int i = 0; i < events.size(); i++) {
+            if (!duplicates.contains(i)) fresh.add(events.get(i).getId());
+        }
+        return fresh;
+    }
+
+    @Override
+    public void unmarkApplied(Collection<String> ids) {
+        if (!ids.isEmpty()) mongo.remove(query(where("_id").in(ids)), AppliedEvent.class);
+    }
+
+    @Override
+    public void apply(AnalyticsDelta delta) {
+        Map<String, Long> states = delta.states();
+        if (!states.isEmpty()) {
+            Update u = new Update();
+            states.forEach((state, n) -> u.inc("states." + state, n));
+            mongo.upsert(query(where("_id").is(AnalyticsCounters.ID)), u, AnalyticsCounters.class);
+        }
+        if (delta.increments().isEmpty()) return;
+        BulkOperations days = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsDay.class);
+        Map<String, Map<String, Long>> maxima = delta.maxima();
+        for (Map.Entry<String, Map<String, Long>> day : delta.increments().entrySet()) {
+            Update u = new Update();
+            day.getValue().forEach(u::inc);
+            maxima.getOrDefault(day.getKey(), Map.of()).forEach(u::max);
+            days.upsert(query(where("_id").is(day.getKey())), u);
+        }
+        days.execute();
+    }
+
+    @Override
+    public int rebuild(Instant asOf) {
+        String documents = mongo.getCollectionName(DocumentMetadata.class);
+        String audits = mongo.getCollectionName(DocumentAudit.class);
+        Document upToAsOf = new Document("$lte", Date.from(asOf));
+
+        Document states = new Document();
+        for (Document d : aggregate(documents, List.of(
+                new Document("$group", new Document("_id", "$workflowState").append("n", new Document("$sum", 1)))))) {
+            states.put(AnalyticsDelta.key(d.getString("_id")), d.get("n"));
+        }
+
+        Map<String, Document> days = new TreeMap<>();
+        // audits moved out by retention only exist in archive segments; rows an interrupted run left behind in
+        // the hot collection are counted below with the rest of document_audits
+        Instant[] firstCreated = new Instant[1];
+        try (Stream<AuditSegment> segments = mongo.stream(query(where("from").lte(asOf)), AuditSegment.class)) {
+            segments.forEach(s -> {
+                List<DocumentAudit> rows = AuditSegmentCodec.decode(s.getData());
+                Set<String> hot = stillHot(rows);
+                for (DocumentAudit a : rows) {
+                    if (hot.contains(a.getId()) || a.getAt().isAfter(asOf)) continue;
+                    addArchived(days, a);
+                    if ("CREATED".equals(a.getAction()) && (firstCreated[0] == null || a.getAt().isBefore(firstCreated[0]))) firstCreated[0] = a.getAt();
+                }
+            });
+        }
+
+        // creations, edits and deletions come from audits, so deleted documents still count as created
+        for (Document d : aggregate(audits, List.of(
+                new Document("$match", new Document("action", new Document("$in", List.of("CREATED", "EDITED", "DELETED"))).append("at", upToAsOf)),
+                new Document("$group", new Document("_id", new Document("day", day("$at")).append("action", "$action"))
+                        .append("n", new Document("$sum", 1)).append("first", new Document("$min", "$at")))))) {
+            Document id = d.get("_id", Document.class);
+            String action = id.getString("action");
+            add(dayOf(days, id.getString("day")), action.equals("CREATED") ? "created" : action.equals("EDITED") ? "edited" : "deleted",
+                    ((Number) d.get("n")).longValue());
+            Instant first = d.getDate("first").toInstant();
+            if (action.equals("CREATED") && (firstCreated[0] == null || first.isBefore(firstCreated[0]))) firstCreated[0] = first;
+        }
+        // documents from before CREATED audits were recorded only have their createdAt
+        Document legacy = firstCreated[0] == null
+                ? new Document("$type", "date").append("$lte", Date.from(asOf))
+                : new Document("$type", "date").append("$lt", Date.from(firstCreated[0]));
+        for (Document d : aggregate(documents, List.of(
+                new Document("$match", new Document("createdAt", legacy)),
+                new Document("$group", new Document("_id", day("$createdAt")).append("n", new Document("$sum", 1)))))) {
+            add(dayOf(days, d.getString("_id")), "created", ((Number) d.get("n")).longValue());
+        }
+
+        // workflow transitions are the audits whose details start with the source state
+        Document transitions = new Document("$match", new Document("details", new Document("$regex", "^from=")).append("at", upToAsOf));
+        Document createdAt = new Document("$toDate", new Document("$convert",
+                new Document("input", "$documentId").append("to", "objectId").append("onError", null).append("onNull", null)));
+        Document ms = new Document("$subtract", List.of("$at", createdAt));
+        Document isNull = new Document("$eq", Arrays.asList("$ms", null));
+        Document project = new Document("$project", new Document("day", day("$at")).append("action", 1).append("ms", ms));
+        Document clamp = new Document("$project", new Document("day", 1).append("action", 1)
+                .append("ms", new Document("$cond", Arrays.asList(isNull, null, new Document("$max", List.of(0L, "$ms"))))));
+        Document group = new Document("$group", new Document("_id", new Document("day", "$day").append("action", "$action"))
+                .append("n", new Document("$sum", 1))
+                .append("count", new Document("$sum", new Document("$cond", List.of(isNull, 0, 1))))
+                .append("totalMs", new Document("$sum", "$ms"))
+                .append("maxMs", new Document("$max", "$ms")));
+        for (Document d : aggregate(audits, List.of(transitions, project, clamp, group))) {
+            Document id = d.get("_id", Document.class);
+            Document day = dayOf(days, id.getString("day"));
+            String action = AnalyticsDelta.key(id.getString("action"));
+            add(day.get("actions", Document.class), action, ((Number) d.get("n")).longValue());
+            long count = ((Number) d.get("count")).longValue();
+            if (count > 0) {
+                Document acc = turnaround(day, action);
+                add(acc, "count", count);
+                add(acc, "totalMs", ((Number) d.get("totalMs")).longValue());
+                acc.put("maxMs", Math.max(((Number) acc.get("maxMs")).longValue(), ((Number) d.get("maxMs")).longValue()));
+            }
+        }
+        for (Document d : aggregate(audits, List.of(transitions,
+                new Document("$group", new Document("_id", new Document("day", day("$at")).append("actor", "$actor"))
+                        .append("n", new Document("$sum", 1)))))) {
+            Document id = d.get("_id", Document.class);
+            add(dayOf(days, id.getString("day")).get("actors", Document.class), AnalyticsDelta.key(id.getString("actor")), ((Number) d.get("n")).longValue());
+        }
+
+        // built beside the live collection and swapped in by one rename, so readers never meet an empty or
+        // half-written collection
+        String target = mongo.getCollectionName(AnalyticsDay.class);
+        mongo.dropCollection(target + STAGING);
+        MongoCollection<Document> staging = mongo.createCollection(target + STAGING);
+        if (!days.isEmpty()) staging.insertMany(new ArrayList<>(days.values()));
+        staging.renameCollection(new MongoNamespace(mongo.getDb().getName(), target), new RenameCollectionOptions().dropTarget(true));
+        mongo.getCollection(mongo.getCollectionName(AnalyticsCounters.class)).replaceOne(
+                new Document("_id", AnalyticsCounters.ID), new Document("_id", AnalyticsCounters.ID).append("states", states).append("asOf", Date.from(asOf)),
+                new ReplaceOptions().upsert(true));
+        return days.size();
+    }
+
+    private Set<String> stillHot(List<DocumentAudit> rows) {
+        List<String> ids = new ArrayList<>(rows.size());
+        for (DocumentAudit a : rows) ids.add(a.getId());
+        Query q = query(where("id").in(ids));
+        q.fields().include("id");
+        Set<String> hot = new HashSet<>();
+        for (DocumentAudit a : mongo.find(q, DocumentAudit.class)) hot.add(a.getId());
+        return hot;
+    }
+
+    private static void addArchived(Map<String, Document> days, DocumentAudit a) {
+        Document day = dayOf(days, AnalyticsDelta.day(a.getAt()));
+        if ("CREATED".equals(a.getAction())) add(day, "created", 1);
+        else if ("EDITED".equals(a.getAction())) add(day, "edited", 1);
+        else if ("DELETED".equals(a.getAction())) add(day, "deleted", 1);
+        if (a.getDetails() == null || !a.getDetails().startsWith("from=")) return;
+        String action = AnalyticsDelta.key(a.getAction());
+        add(day.get("actions", Document.class), action, 1);
+        add(day.get("actors", Document.class), AnalyticsDelta.key(a.getActor()), 1);
+        if (a.getDocumentId() == null || !ObjectId.isValid(a.getDocumentId())) return;
+        long ms = Math.max(0, a.getAt().toEpochMilli() - new ObjectId(a.getDocumentId()).getDate().getTime());
+        Document acc = turnaround(day, action);
+        add(acc, "count", 1);
+        add(acc, "totalMs", ms);
+        acc.put("maxMs", Math.max(((Number) acc.get("maxMs")).longValue(), ms));
+    }
+
+    private static Document turnaround(Document day, String action) {
+        Document t = day.get("turnaround", Document.class);
+        Document acc = t.get(action, Document.class);
+        if (acc == null) t.put(action, acc = new Document("count", 0L).append("totalMs", 0L).append("maxMs", 0L));
+        return acc;
+    }
+
+    private static void add(Document d, String field, long n) {
+        Object v = d.get(field);
+        d.put(field, (v == null ? 0L : ((Number) v).longValue()) + n);
+    }
+
+    private List<Document> aggregate(String collection, List<Document> pipeline) {
+        return mongo.getCollection(collection).aggregate(pipeline).allowDiskUse(true).into(new ArrayList<>());
+    }
+
+    private static Document day(String dateField) {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", dateField).append("timezone", "UTC"));
+    }
+
+    private static Document dayOf(Map<String, Document> days, String day) {
+        return days.computeIfAbsent(day, d -> new Document("_id", d).append("created", 0L).append("edited", 0L).append("deleted", 0L)
+                .append("actions", new Document()).append("actors", new Document()).append("turnaround", new Document()));
+    }
+}
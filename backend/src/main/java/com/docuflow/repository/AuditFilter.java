@@ -0,0 +1,7 @@
+package com.docuflow.repository;
+
+import java.time.Instant;
+
+/** Optional filters for audit trail queries; null fields are ignored. */
+public record AuditFilter(String documentId, String actor, String action, Instant from, Instant to) {
+}
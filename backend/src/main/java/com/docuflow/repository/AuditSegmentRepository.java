@@ -0,0 +1,9 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.AuditSegment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuditSegmentRepository extends MongoRepository<AuditSegment, String>, AuditSegmentRepositoryCustom {
+}
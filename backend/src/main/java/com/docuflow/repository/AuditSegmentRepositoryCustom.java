@@ -0,0 +1,21 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.AuditSegment;
+import com.docuflow.model.DocumentAudit;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AuditSegmentRepositoryCustom {
+
+    /**
+     * At most {@code limit} archived audits matching the filter, newest first, starting after the cursor. Only
+     * segments reaching {@code notBefore} or later are decoded (null for no bound); callers merging with hot audits
+     * pass the oldest hot row of a full page, since nothing older can make that page. The filter must name a
+     * document or an actor.
+     */
+    List<DocumentAudit> findArchived(AuditFilter filter, KeysetCursor after, int limit, Instant notBefore);
+
+    /** The segments holding the newest archived audit: every segment whose last row has the latest {@code to}. */
+    List<AuditSegment> findNewest();
+}
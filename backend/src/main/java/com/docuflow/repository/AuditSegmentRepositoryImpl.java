@@ -0,0 +1,83 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.AuditSegment;
+import com.docuflow.model.DocumentAudit;
+import com.docuflow.retention.AuditSegmentCodec;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class AuditSegmentRepositoryImpl implements AuditSegmentRepositoryCustom {
+
+    private static final Comparator<DocumentAudit> NEWEST_FIRST =
+            Comparator.comparing(DocumentAudit::getAt).thenComparing(DocumentAudit::getId).reversed();
+
+    private final MongoTemplate mongo;
+
+    AuditSegmentRepositoryImpl(MongoTemplate mongo) { this.mongo = mongo; }
+
+    @Override
+    public List<DocumentAudit> findArchived(AuditFilter filter, KeysetCursor after, int limit, Instant notBefore) {
+        if (filter.documentId() == null && filter.actor() == null) throw new IllegalArgumentException("Archive queries need a document or an actor");
+        Criteria c = filter.documentId() != null ? where("documentIds").is(filter.documentId()) : where("actors").is(filter.actor());
+        if (filter.documentId() != null && filter.actor() != null) c = c.and("actors").is(filter.actor());
+        Instant upper = filter.to();
+        if (after != null && (upper == null || after.getAt().isBefore(upper))) upper = after.getAt();
+        if (upper != null) c = c.and("from").lte(upper);
+        Instant lower = filter.from();
+        if (notBefore != null && (lower == null || notBefore.isAfter(lower))) lower = notBefore;
+        if (lower != null) c = c.and("to").gte(lower);
+        // segments carry up to a few thousand rows each, so fetch them a few at a time
+        Query q = query(c).with(Sort.by(Sort.Order.desc("to"), Sort.Order.desc("_id"))).cursorBatchSize(4);
+
+        List<DocumentAudit> out = new ArrayList<>();
+        try (Stream<AuditSegment> segments = mongo.stream(q, AuditSegment.class)) {
+            Iterator<AuditSegment> it = segments.iterator();
+            while (it.hasNext()) {
+                AuditSegment s = it.next();
+                if (out.size() >= limit) {
+                    trim(out, limit);
+                    // later segments end earlier; once one ends before our oldest kept row nothing more can qualify
+                    if (s.getTo().isBefore(out.get(limit - 1).getAt())) break;
+                }
+                for (DocumentAudit a : AuditSegmentCodec.decode(s.getData())) {
+                    if (matches(a, filter, after)) out.add(a);
+                }
+            }
+        }
+        trim(out, limit);
+        return out;
+    }
+
+    @Override
+    public List<AuditSegment> findNewest() {
+        AuditSegment newest = mongo.findOne(new Query().with(Sort.by(Sort.Order.desc("to"))), AuditSegment.class);
+        return newest == null ? List.of() : mongo.find(query(where("to").is(newest.getTo())), AuditSegment.class);
+    }
+
+    private static void trim(List<DocumentAudit> rows, int limit) {
+        rows.sort(NEWEST_FIRST);
+        if (rows.size() > limit) rows.subList(limit, rows.size()).clear();
+    }
+
+    private static boolean matches(DocumentAudit a, AuditFilter f, KeysetCursor after) {
+        if (f.documentId() != null && !f.documentId().equals(a.getDocumentId())) return false;
+        if (f.actor() != null && !f.actor().equals(a.getActor())) return false;
+        if (f.action() != null && !Objects.equals(f.action(), a.getAction())) return false;
+        if (f.from() != null && a.getAt().isBefore(f.from())) return false;
+        if (f.to() != null && !a.getAt().isBefore(f.to())) return false;
+        return after == null || after.admits(a.getAt(), a.getId());
+    }
+}
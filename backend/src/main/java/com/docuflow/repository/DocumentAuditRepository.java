@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface DocumentAuditRepository extends MongoRepository<DocumentAudit, String> {
+public interface DocumentAuditRepository extends MongoRepository<DocumentAudit, String>, DocumentAuditRepositoryCustom {
 }
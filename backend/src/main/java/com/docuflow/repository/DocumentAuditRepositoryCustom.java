@@ -0,0 +1,25 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentAudit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface DocumentAuditRepositoryCustom {
+
+    /**
+     * Streams at most {@code limit} audits matching the filter, newest first, starting after the given cursor.
+     * The stream is backed by a Mongo cursor and must be closed by the caller.
+     */
+    Stream<DocumentAudit> streamPage(AuditFilter filter, KeysetCursor after, int limit);
+
+    /**
+     * Inserts the audits in one unordered bulk write. Ids are assigned before the first attempt, so calling it
+     * again with the same list after a partial failure skips the rows already stored instead of duplicating them.
+     */
+    void insertAll(List<DocumentAudit> audits);
+
+    /** The oldest audits stamped before {@code before}, at most {@code limit}, oldest first. */
+    List<DocumentAudit> findOldest(Instant before, int limit);
+}
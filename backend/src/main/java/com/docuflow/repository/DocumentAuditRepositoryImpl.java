@@ -0,0 +1,71 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentAudit;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class DocumentAuditRepositoryImpl implements DocumentAuditRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongo;
+
+    DocumentAuditRepositoryImpl(MongoTemplate mongo) { this.mongo = mongo; }
+
+    @Override
+    public Stream<DocumentAudit> streamPage(AuditFilter filter, KeysetCursor after, int limit) {
+        List<Criteria> and = new ArrayList<>();
+        // equality on the leading index key first so the planner picks documentId_at / actor_at
+        if (filter.documentId() != null) and.add(Criteria.where("documentId").is(filter.documentId()));
+        if (filter.actor() != null) and.add(Criteria.where("actor").is(filter.actor()));
+        if (filter.action() != null) and.add(Criteria.where("action").is(filter.action()));
+        if (filter.from() != null || filter.to() != null) {
+            Criteria at = Criteria.where("at");
+            if (filter.from() != null) at = at.gte(filter.from());
+            if (filter.to() != null) at = at.lt(filter.to());
+            and.add(at);
+        }
+        if (after != null) and.add(after.after("at"));
+
+        Query q = new Query();
+        if (!and.isEmpty()) q.addCriteria(new Criteria().andOperator(and));
+        q.with(Sort.by(Sort.Order.desc("at"), Sort.Order.desc("_id"))).limit(limit).cursorBatchSize(Math.min(limit, 500));
+        return mongo.stream(q, DocumentAudit.class);
+    }
+
+    @Override
+    public void insertAll(List<DocumentAudit> audits) {
+        if (audits.isEmpty()) return;
+        for (DocumentAudit a : audits) {
+            if (a.getId() == null) a.setId(new ObjectId().toHexString());
+        }
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DocumentAudit.class);
+        ops.insert(audits);
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<DocumentAudit> findOldest(Instant before, int limit) {
+        Query q = new Query(Criteria.where("at").lt(before))
+                .with(Sort.by(Sort.Order.asc("at"), Sort.Order.asc("_id")))
+                .limit(limit);
+        return mongo.find(q, DocumentAudit.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.docuflow.repository;
+
+import java.util.List;
+
+/** Optional filters for document listings; null or empty fields are ignored. */
+public record DocumentFilter(String author, List<String> workflowStates, String tag) {
+}
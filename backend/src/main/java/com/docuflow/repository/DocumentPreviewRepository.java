@@ -0,0 +1,9 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentPreview;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DocumentPreviewRepository extends MongoRepository<DocumentPreview, String> {
+}
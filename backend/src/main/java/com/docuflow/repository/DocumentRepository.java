@@ -1,13 +1,80 @@
 package com.docuflow.repository;
 
+import com.docuflow.config.CacheConfig;
 import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.workflow.TransitionClause;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * findById is served from the {@link CacheConfig#DOCUMENTS} cache. Every write path below evicts the id it
+ * touches both before and after writing, so only a read that overlaps the write itself can cache the old
+ * document again; bulk transitions do the same in {@link DocumentRepositoryImpl#transitionAll}. Misses are not cached (the
+ * cache rejects nulls), so unknown ids fall through to Mongo and come back as an empty Optional.
+ */
 @Repository
-public interface DocumentRepository extends MongoRepository<DocumentMetadata, String> {
+public interface DocumentRepository extends MongoRepository<DocumentMetadata, String>, DocumentRepositoryCustom {
     List<DocumentMetadata> findByWorkflowStateIn(List<String> states);
     List<DocumentMetadata> findByAuthor(String author);
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", unless = "#result == null")
+    Optional<DocumentMetadata> findById(String id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0.id", condition = "#p0.id != null", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0.id", condition = "#p0.id != null")
+    })
+    <S extends DocumentMetadata> S save(S entity);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    void deleteById(String id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    DocumentMetadata findAndRemove(String id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    DocumentMetadata transition(String id, List<TransitionClause> clauses, String actor, String toState, Instant at);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    boolean updateContent(String id, int expectedVersion, String expectedState, String content, String searchText, String editor, Instant at);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    boolean setPreview(String id, PreviewRef preview);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.DOCUMENTS, key = "#p0")
+    })
+    PreviewRef recordPreviewAttempt(String id, Instant at);
 }
@@ -0,0 +1,79 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentSummary;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.workflow.TransitionClause;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface DocumentRepositoryCustom {
+
+    /**
+     * Streams at most {@code limit} summaries, most recently updated first, starting after the given cursor.
+     * The stream is backed by a Mongo cursor and must be closed by the caller.
+     */
+    Stream<DocumentSummary> streamSummaries(DocumentFilter filter, KeysetCursor after, int limit);
+
+    /**
+     * Ranks documents matching {@code text} (Mongo text search syntax: words, "phrases", -exclusions) over title,
+     * tags and extracted text, narrowed by the filter. Returns page {@code page} of {@code size} hits, the total
+     * match count and the {@code maxFacets} most frequent tags among all matches.
+     */
+    SearchResult search(String text, DocumentFilter filter, int page, int size, int maxFacets);
+
+    /**
+     * Atomically moves the document to {@code toState} if any of the clauses matches it (its type, current state
+     * and, for guarded edges, an author other than {@code actor}). Returns the document as it was before the
+     * update (only {@code workflowState}, {@code author} and {@code documentType} are loaded), or null when
+     * nothing matched.
+     */
+    DocumentMetadata transition(String id, List<TransitionClause> clauses, String actor, String toState, Instant at);
+
+    /**
+     * Records the outcome of preview generation and drops the Base64 head that file-backed documents kept in
+     * {@code content} before previews existed. Returns false when the document is gone.
+     */
+    boolean setPreview(String id, PreviewRef preview);
+
+    /**
+     * File-backed documents created before {@code createdBefore} whose preview is still pending or was never
+     * queued (uploads from before previews existed), oldest first. Documents with a failed attempt after
+     * {@code createdBefore} are left out, so one that keeps failing does not hold up the rest.
+     */
+    List<DocumentMetadata> findPreviewBacklog(Instant createdBefore, int limit);
+
+    /**
+     * Replaces the content if the document is still at {@code expectedVersion} and bumps it to the next version.
+     * Returns false when the document is gone or another edit got there first.
+     */
+    boolean updateContent(String id, int expectedVersion, String expectedState, String content, String searchText, String editor, Instant at);
+
+    /**
+     * Deletes the document and returns what was removed, or null when it was already gone. Only the caller that
+     * gets the document back may release what it referenced.
+     */
+    DocumentMetadata findAndRemove(String id);
+
+    /**
+     * Counts a failed generation attempt on a pending preview (or a file-backed document that never had one) and
+     * returns the updated ref, or null when the preview is no longer pending or the document is gone.
+     */
+    PreviewRef recordPreviewAttempt(String id, Instant at);
+
+    /** Loads only {@code workflowState}, {@code author} and {@code documentType} for the given ids. */
+    List<DocumentMetadata> findStates(Collection<String> ids);
+
+    /**
+     * Bulk form of {@link #transition}: one unordered bulkWrite with a conditional update per document, each
+     * matching the expected current state given in {@code expectedFrom} and, for ids in {@code authorGuarded},
+     * an author other than {@code actor}. Returns exactly the ids this call moved, even when other transitions
+     * race with it.
+     */
+    Set<String> transitionAll(Map<String, String> expectedFrom, Set<String> authorGuarded, String actor, String toState, Instant at);
+}
@@ -0,0 +1,217 @@
+package com.docuflow.repository;
+
+import com.docuflow.config.CacheConfig;
+import com.docuflow.model.DocumentHit;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentSummary;
+import com.docuflow.model.PreviewRef;
+import com.docuflow.workflow.TransitionClause;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class DocumentRepositoryImpl implements DocumentRepositoryCustom {
+
+    /** Tokens of bulk transitions in flight; not mapped on {@link DocumentMetadata}. */
+    static final String PENDING_TRANSITIONS = "pendingTransitions";
+
+    private final MongoTemplate mongo;
+    private final Cache documents;
+
+    DocumentRepositoryImpl(MongoTemplate mongo, CacheManager caches) {
+        this.mongo = mongo;
+        this.documents = caches.getCache(CacheConfig.DOCUMENTS);
+    }
+
+    @Override
+    public Stream<DocumentSummary> streamSummaries(DocumentFilter filter, KeysetCursor after, int limit) {
+        List<Criteria> and = criteria(filter);
+        if (after != null) and.add(after.after("updatedAt"));
+
+        Query q = new Query();
+        if (!and.isEmpty()) q.addCriteria(new Criteria().andOperator(and));
+        q.fields().include(DocumentSummary.FIELDS);
+        q.with(Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("_id"))).limit(limit).cursorBatchSize(Math.min(limit, 500));
+        return mongo.stream(q, DocumentSummary.class, mongo.getCollectionName(DocumentMetadata.class));
+    }
+
+    private static List<Criteria> criteria(DocumentFilter filter) {
+        List<Criteria> and = new ArrayList<>();
+        if (filter.author() != null) and.add(Criteria.where("author").is(filter.author()));
+        List<String> states = filter.workflowStates();
+        if (states != null && !states.isEmpty()) {
+            and.add(states.size() == 1 ? Criteria.where("workflowState").is(states.get(0)) : Criteria.where("workflowState").in(states));
+        }
+        if (filter.tag() != null) and.add(Criteria.where("tags").is(filter.tag()));
+        return and;
+    }
+
+    @Override
+    public SearchResult search(String text, DocumentFilter filter, int page, int size, int maxFacets) {
+        TextCriteria matching = TextCriteria.forDefaultLanguage().matching(text);
+        List<Criteria> and = criteria(filter);
+        Criteria filters = new Criteria().andOperator(and);
+        String collection = mongo.getCollectionName(DocumentMetadata.class);
+
+        Query q = TextQuery.queryText(matching).sortByScore();
+        if (!and.isEmpty()) q.addCriteria(filters);
+        q.fields().include(DocumentSummary.FIELDS);
+        // newest first among equal scores keeps pages stable
+        q.with(Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("_id"))).skip((long) page * size).limit(size);
+        List<DocumentHit> items = mongo.find(q, DocumentHit.class, collection);
+
+        // total and tag counts in one pass over the matches; $text has to sit in the first $match
+        FacetOperation facets = Aggregation.facet(Aggregation.count().as("n")).as("total")
+                .and(Aggregation.unwind("tags"), Aggregation.sortByCount("tags"), Aggregation.limit(maxFacets)).as("tags");
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(matching));
+        if (!and.isEmpty()) stages.add(Aggregation.match(filters));
+        stages.add(facets);
+        Document out = mongo.aggregate(Aggregation.newAggregation(stages), collection, Document.class).getUniqueMappedResult();
+
+        long total = 0;
+        List<SearchResult.TagCount> tags = new ArrayList<>();
+        if (out != null) {
+            List<Document> totals = out.getList("total", Document.class, List.of());
+            if (!totals.isEmpty()) total = ((Number) totals.get(0).get("n")).longValue();
+            for (Document t : out.getList("tags", Document.class, List.of())) {
+                tags.add(new SearchResult.TagCount(t.getString("_id"), ((Number) t.get("count")).longValue()));
+            }
+        }
+        return new SearchResult(total, page, size, items, tags);
+    }
+
+    @Override
+    public DocumentMetadata transition(String id, List<TransitionClause> clauses, String actor, String toState, Instant at) {
+        if (clauses.isEmpty()) return null;
+        List<Criteria> anyOf = new ArrayList<>(clauses.size() * 2);
+        for (TransitionClause c : clauses) {
+            if (!c.openFrom().isEmpty()) {
+                anyOf.add(new Criteria().andOperator(ofType(c), Criteria.where("workflowState").in(c.openFrom())));
+            }
+            if (!c.guardedFrom().isEmpty()) {
+                anyOf.add(new Criteria().andOperator(ofType(c), Criteria.where("workflowState").in(c.guardedFrom()), Criteria.where("author").ne(actor)));
+            }
+        }
+        Query q = new Query(Criteria.where("_id").is(id).orOperator(anyOf));
+        q.fields().include("workflowState", "author", "documentType");
+        Update u = new Update().set("workflowState", toState).set("updatedAt", at);
+        return mongo.findAndModify(q, u, FindAndModifyOptions.options().returnNew(false), DocumentMetadata.class);
+    }
+
+    private static Criteria ofType(TransitionClause c) {
+        // documents uploaded before types existed have no documentType and follow the default workflow
+        return c.matchesUntyped()
+                ? Criteria.where("documentType").in(null, c.documentType())
+                : Criteria.where("documentType").is(c.documentType());
+    }
+
+    @Override
+    public boolean updateContent(String id, int expectedVersion, String expectedState, String content, String searchText, String editor, Instant at) {
+        // documents stored before versioning have no contentVersion and count as version 1
+        Criteria current = expectedVersion == 1
+                ? Criteria.where("contentVersion").in(null, 0, 1)
+                : Criteria.where("contentVersion").is(expectedVersion);
+        Query q = new Query(Criteria.where("_id").is(id).and("workflowState").is(expectedState).andOperator(current));
+        Update u = new Update().set("content", content).set("searchText", searchText)
+                .set("contentVersion", expectedVersion + 1).set("contentUpdatedAt", at).set("contentUpdatedBy", editor)
+                .set("updatedAt", at);
+        return mongo.updateFirst(q, u, DocumentMetadata.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean setPreview(String id, PreviewRef preview) {
+        Query q = new Query(Criteria.where("_id").is(id).and("fileId").exists(true));
+        return mongo.updateFirst(q, new Update().set("preview", preview).unset("content"), DocumentMetadata.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public List<DocumentMetadata> findPreviewBacklog(Instant createdBefore, int limit) {
+        // fileId in the filter lets the planner use the partial preview_status_createdAt index
+        Query q = new Query(Criteria.where("fileId").exists(true)
+                .and("preview.status").in(null, PreviewRef.Status.PENDING.name())
+                .and("createdAt").lt(createdBefore)
+                .orOperator(Criteria.where("preview.lastAttemptAt").exists(false), Criteria.where("preview.lastAttemptAt").lt(createdBefore)));
+        q.fields().include("fileId", "fileName", "contentType", "contentHash", "preview", "author", "documentType", "workflowState", "createdAt");
+        q.with(Sort.by("preview.status", "createdAt")).limit(limit);
+        return mongo.find(q, DocumentMetadata.class);
+    }
+
+    @Override
+    public PreviewRef recordPreviewAttempt(String id, Instant at) {
+        Query q = new Query(Criteria.where("_id").is(id).and("fileId").exists(true)
+                .and("preview.status").in(null, PreviewRef.Status.PENDING.name()));
+        q.fields().include("preview");
+        Update u = new Update().set("preview.status", PreviewRef.Status.PENDING.name())
+                .inc("preview.attempts", 1).set("preview.lastAttemptAt", at);
+        DocumentMetadata d = mongo.findAndModify(q, u, FindAndModifyOptions.options().returnNew(true), DocumentMetadata.class);
+        return d == null ? null : d.getPreview();
+    }
+
+    @Override
+    public DocumentMetadata findAndRemove(String id) {
+        return mongo.findAndRemove(new Query(Criteria.where("_id").is(id)), DocumentMetadata.class);
+    }
+
+    @Override
+    public List<DocumentMetadata> findStates(Collection<String> ids) {
+        Query q = new Query(Criteria.where("_id").in(ids));
+        q.fields().include("workflowState", "author", "documentType");
+        return mongo.find(q, DocumentMetadata.class);
+    }
+
+    @Override
+    public Set<String> transitionAll(Map<String, String> expectedFrom, Set<String> authorGuarded, String actor, String toState, Instant at) {
+        if (expectedFrom.isEmpty()) return Set.of();
+        // each update tags the document with a token of this call, so a partial match can be told apart from
+        // concurrent transitions to the same state; the tag is removed again before returning
+        String token = UUID.randomUUID().toString();
+        expectedFrom.keySet().forEach(documents::evict);
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, DocumentMetadata.class);
+        Update u = new Update().set("workflowState", toState).set("updatedAt", at).addToSet(PENDING_TRANSITIONS, token);
+        expectedFrom.forEach((id, from) -> {
+            Criteria c = Criteria.where("_id").is(id).and("workflowState").is(from);
+            if (authorGuarded.contains(id)) c = c.and("author").ne(actor);
+            ops.updateOne(new Query(c), u);
+        });
+        BulkWriteResult result = ops.execute();
+
+        Set<String> applied;
+        if (result.getMatchedCount() == expectedFrom.size()) {
+            applied = expectedFrom.keySet();
+        } else {
+            Query q = new Query(Criteria.where("_id").in(expectedFrom.keySet()).and(PENDING_TRANSITIONS).is(token));
+            q.fields().include("_id");
+            applied = new HashSet<>();
+            for (DocumentMetadata d : mongo.find(q, DocumentMetadata.class)) applied.add(d.getId());
+        }
+        if (!applied.isEmpty()) {
+            mongo.updateMulti(new Query(Criteria.where("_id").in(applied)), new Update().pull(PENDING_TRANSITIONS, token), DocumentMetadata.class);
+        }
+        expectedFrom.keySet().forEach(documents::evict);
+        return applied;
+    }
+}
@@ -0,0 +1,23 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentVersionRepository extends MongoRepository<DocumentVersion, String> {
+
+    /** Versions {@code from} to {@code to}, both inclusive, oldest first. */
+    @Query(value = "{ 'documentId': ?0, 'version': { $gte: ?1, $lte: ?2 } }", sort = "{ 'version': 1 }")
+    List<DocumentVersion> findRange(String documentId, int from, int to);
+
+    /** Versions below {@code before}, newest first, without their data. */
+    @Query(value = "{ 'documentId': ?0, 'version': { $lt: ?1 } }", fields = "{ 'data': 0 }", sort = "{ 'version': -1 }")
+    List<DocumentVersion> findHistory(String documentId, int before, Pageable page);
+
+    void deleteByDocumentId(String documentId);
+}
@@ -0,0 +1,17 @@
+package com.docuflow.repository;
+
+import java.time.Instant;
+
+public interface JobLockRepositoryCustom {
+
+    /**
+     * Takes or extends the lease on {@code job} until {@code until}. Succeeds when the lease is free, expired or
+     * already held by {@code owner}.
+     */
+    boolean acquire(String job, String owner, Instant until);
+
+    void release(String job, String owner);
+
+    /** Whether some node holds an unexpired lease on {@code job}. */
+    boolean isHeld(String job);
+}
@@ -0,0 +1,41 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.JobLock;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class JobLockRepositoryImpl implements JobLockRepositoryCustom {
+
+    private final MongoTemplate mongo;
+
+    JobLockRepositoryImpl(MongoTemplate mongo) { this.mongo = mongo; }
+
+    @Override
+    public boolean acquire(String job, String owner, Instant until) {
+        Criteria free = new Criteria().orOperator(where("until").lt(Instant.now()), where("owner").is(owner));
+        try {
+            // a held lease does not match, so the upsert tries to insert a second document with the same id and fails
+            mongo.upsert(query(where("_id").is(job).andOperator(free)), Update.update("owner", owner).set("until", until), JobLock.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String job, String owner) {
+        mongo.updateFirst(query(where("_id").is(job).and("owner").is(owner)), Update.update("until", Instant.EPOCH), JobLock.class);
+    }
+
+    @Override
+    public boolean isHeld(String job) {
+        return mongo.exists(query(where("_id").is(job).and("until").gt(Instant.now())), JobLock.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.docuflow.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque position in a listing ordered by (timestamp desc, _id desc). Clients get it back in the
+ * {@code X-Next-Cursor} header and pass it as {@code cursor} to fetch the following page.
+ */
+public final class KeysetCursor {
+
+    public static final String HEADER = "X-Next-Cursor";
+
+    private final Instant at;
+    private final String id;
+
+    public KeysetCursor(Instant at, String id) { this.at = at; this.id = id; }
+
+    public Instant getAt() { return at; }
+    public String getId() { return id; }
+
+    public String encode() {
+        String raw = at.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a missing cursor (first page). A malformed one throws IllegalArgumentException, which
+     * callers answer with 400: restarting from the first page would make a client loop over it forever.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep > 0 && sep < raw.length() - 1) {
+                return new KeysetCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Malformed cursor");
+    }
+
+    /** Whether a row sorts strictly after this cursor in (timestamp desc, _id desc) order; the in-memory {@link #after}. */
+    public boolean admits(Instant rowAt, String rowId) {
+        int c = rowAt.compareTo(at);
+        return c < 0 || (c == 0 && rowId.compareTo(id) < 0);
+    }
+
+    /** Rows strictly after this cursor for a (field desc, _id desc) ordering. */
+    public Criteria after(String field) {
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(at),
+                Criteria.where(field).is(at).and("_id").lt(id));
+    }
+}
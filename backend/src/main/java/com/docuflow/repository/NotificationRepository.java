@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface NotificationRepository extends MongoRepository<Notification, String> {
+public interface NotificationRepository extends MongoRepository<Notification, String>, NotificationRepositoryCustom {
     List<Notification> findByUsernameOrderByCreatedAtDesc(String username);
+    long countByUsernameAndReadFalse(String username);
+    boolean existsByIdAndUsername(String id, String username);
 }
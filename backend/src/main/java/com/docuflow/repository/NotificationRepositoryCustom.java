@@ -0,0 +1,27 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.Notification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface NotificationRepositoryCustom {
+
+    /** Streams at most {@code limit} notifications for the user, newest first, starting after the cursor. */
+    Stream<Notification> streamPage(String username, boolean unreadOnly, KeysetCursor after, int limit);
+
+    /** Returns true when the user's notification existed and was unread. */
+    boolean markRead(String id, String username);
+
+    long markAllRead(String username);
+
+    /** Gives read notifications stored before readAt existed a readAt, which starts their TTL. */
+    long stampReadAt(Instant at);
+
+    /**
+     * Inserts notifications whose ids are already assigned, skipping any id that is already stored, and returns
+     * the ones actually inserted. Lets event consumers derive ids from event ids and be safely redelivered.
+     */
+    List<Notification> insertNew(List<Notification> notifications);
+}
@@ -0,0 +1,86 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.Notification;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongo;
+
+    NotificationRepositoryImpl(MongoTemplate mongo) { this.mongo = mongo; }
+
+    @Override
+    public Stream<Notification> streamPage(String username, boolean unreadOnly, KeysetCursor after, int limit) {
+        Criteria c = where("username").is(username);
+        if (unreadOnly) c = c.and("read").is(false);
+        if (after != null) c = new Criteria().andOperator(c, after.after("createdAt"));
+        Query q = query(c)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id")))
+                .limit(limit)
+                .cursorBatchSize(Math.min(limit, 500));
+        return mongo.stream(q, Notification.class);
+    }
+
+    @Override
+    public boolean markRead(String id, String username) {
+        return mongo.updateFirst(query(where("_id").is(id).and("username").is(username).and("read").is(false)), readNow(), Notification.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public long markAllRead(String username) {
+        return mongo.updateMulti(query(where("username").is(username).and("read").is(false)), readNow(), Notification.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long stampReadAt(Instant at) {
+        return mongo.updateMulti(query(where("read").is(true).and("readAt").exists(false)), Update.update("readAt", at), Notification.class)
+                .getModifiedCount();
+    }
+
+    private static Update readNow() {
+        return Update.update("read", true).set("readAt", Instant.now());
+    }
+
+    @Override
+    public List<Notification> insertNew(List<Notification> notifications) {
+        if (notifications.isEmpty()) return List.of();
+        BulkOperations ops = mongo.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        ops.insert(notifications);
+        try {
+            ops.execute();
+            return notifications;
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) throw e;
+                duplicates.add(error.getIndex());
+            }
+            List<Notification> inserted = new ArrayList<>(notifications.size() - duplicates.size());
+            for (int i = 0; i < notifications.size(); i++) {
+                if (!duplicates.contains(i)) inserted.add(notifications.get(i));
+            }
+            return inserted;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.DocumentHit;
+
+import java.util.List;
+
+/** One page of search hits, best first, with the total match count and tag counts over all matches. */
+public record SearchResult(long total, int page, int size, List<DocumentHit> items, List<TagCount> tags) {
+
+    public record TagCount(String tag, long count) {}
+}
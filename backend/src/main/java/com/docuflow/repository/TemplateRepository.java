@@ -1,9 +1,26 @@
 package com.docuflow.repository;
 
+import com.docuflow.config.CacheConfig;
 import com.docuflow.model.Template;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TemplateRepository extends MongoRepository<Template, String> {
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.TEMPLATES, key = "'all'")
+    List<Template> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMPLATES, allEntries = true)
+    <S extends Template> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMPLATES, allEntries = true)
+    void deleteById(String id);
 }
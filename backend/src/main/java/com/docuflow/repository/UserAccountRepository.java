@@ -0,0 +1,9 @@
+package com.docuflow.repository;
+
+import com.docuflow.model.UserAccount;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAccountRepository extends MongoRepository<UserAccount, String> {
+}
@@ -0,0 +1,195 @@
+package com.docuflow.retention;
+
+import com.docuflow.model.DocumentAudit;
+import org.bson.types.ObjectId;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Columnar layout of an audit segment, version 1: a version byte, then deflated:
+ * <pre>
+ *   count        varint
+ *   id           count strings
+ *   at           count zigzag varint deltas of epoch millis, each against the previous row
+ *   documentId   dictionary: varint size, size strings, then count varint indexes
+ *   actor        dictionary
+ *   action       dictionary
+ *   details      count strings
+ * </pre>
+ * Strings use the doc-event header: 0 null, 1 an ObjectId in 12 raw bytes, n + 2 n bytes of UTF-8. Keeping
+ * each column together puts repeated ids, actors and actions next to each other, which is what deflate is good at.
+ */
+public final class AuditSegmentCodec {
+
+    static final byte VERSION = 1;
+    private static final int NULL = 0;
+    private static final int OBJECT_ID = 1;
+    private static final int UTF8 = 2;
+
+    private AuditSegmentCodec() {}
+
+    /** Audits are expected oldest first, which keeps the time deltas small. */
+    public static byte[] encode(List<DocumentAudit> audits) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(audits.size() * 48);
+        putVarint(raw, audits.size());
+        for (DocumentAudit a : audits) putString(raw, a.getId());
+        long prev = 0;
+        for (DocumentAudit a : audits) {
+            long ms = a.getAt().toEpochMilli();
+            long d = ms - prev;
+            putVarlong(raw, (d << 1) ^ (d >> 63));
+            prev = ms;
+        }
+        putDictionary(raw, audits, DocumentAudit::getDocumentId);
+        putDictionary(raw, audits, DocumentAudit::getActor);
+        putDictionary(raw, audits, DocumentAudit::getAction);
+        for (DocumentAudit a : audits) putString(raw, a.getDetails());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.size() / 4 + 16);
+        out.write(VERSION);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream z = new DeflaterOutputStream(out, deflater)) {
+            raw.writeTo(z);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /** Throws IllegalArgumentException for data that is not a version-1 segment. */
+    public static List<DocumentAudit> decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) throw new IllegalArgumentException("Not a version " + VERSION + " audit segment");
+        ByteBuffer b;
+        try (InflaterInputStream z = new InflaterInputStream(new ByteArrayInputStream(data, 1, data.length - 1))) {
+            b = ByteBuffer.wrap(z.readAllBytes());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt audit segment", e);
+        }
+        try {
+            int n = getVarint(b);
+            List<DocumentAudit> audits = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                DocumentAudit a = new DocumentAudit();
+                a.setId(getString(b));
+                audits.add(a);
+            }
+            long ms = 0;
+            for (DocumentAudit a : audits) {
+                long z = getVarlong(b);
+                ms += (z >>> 1) ^ -(z & 1);
+                a.setAt(Instant.ofEpochMilli(ms));
+            }
+            String[] documentIds = getDictionary(b);
+            for (DocumentAudit a : audits) a.setDocumentId(documentIds[getVarint(b)]);
+            String[] actors = getDictionary(b);
+            for (DocumentAudit a : audits) a.setActor(actors[getVarint(b)]);
+            String[] actions = getDictionary(b);
+            for (DocumentAudit a : audits) a.setAction(actions[getVarint(b)]);
+            for (DocumentAudit a : audits) a.setDetails(getString(b));
+            return audits;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated audit segment", e);
+        }
+    }
+
+    private static void putDictionary(ByteArrayOutputStream out, List<DocumentAudit> audits, Function<DocumentAudit, String> column) {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] rows = new int[audits.size()];
+        for (int i = 0; i < rows.length; i++) {
+            String v = column.apply(audits.get(i));
+            Integer at = index.get(v);
+            if (at == null) {
+                at = values.size();
+                index.put(v, at);
+                values.add(v);
+            }
+            rows[i] = at;
+        }
+        putVarint(out, values.size());
+        for (String v : values) putString(out, v);
+        for (int r : rows) putVarint(out, r);
+    }
+
+    private static String[] getDictionary(ByteBuffer b) {
+        String[] values = new String[getVarint(b)];
+        for (int i = 0; i < values.length; i++) values[i] = getString(b);
+        return values;
+    }
+
+    private static void putString(ByteArrayOutputStream out, String s) {
+        if (s == null) {
+            putVarint(out, NULL);
+            return;
+        }
+        // only when it round-trips: upper-case hex would come back lower-cased
+        if (s.length() == 24 && ObjectId.isValid(s) && new ObjectId(s).toHexString().equals(s)) {
+            putVarint(out, OBJECT_ID);
+            out.writeBytes(new ObjectId(s).toByteArray());
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarint(out, bytes.length + UTF8);
+        out.writeBytes(bytes);
+    }
+
+    private static String getString(ByteBuffer b) {
+        int header = getVarint(b);
+        if (header == NULL) return null;
+        if (header == OBJECT_ID) {
+            byte[] raw = new byte[12];
+            b.get(raw);
+            return new ObjectId(raw).toHexString();
+        }
+        int n = header - UTF8;
+        if (n > b.remaining()) throw new BufferUnderflowException();
+        String s = new String(b.array(), b.position(), n, StandardCharsets.UTF_8);
+        b.position(b.position() + n);
+        return s;
+    }
+
+    private static void putVarint(ByteArrayOutputStream out, int v) {
+        putVarlong(out, v & 0xFFFFFFFFL);
+    }
+
+    private static void putVarlong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static int getVarint(ByteBuffer b) {
+        long v = getVarlong(b);
+        if (v > Integer.MAX_VALUE) throw new IllegalArgumentException("Malformed varint in audit segment");
+        return (int) v;
+    }
+
+    private static long getVarlong(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+        throw new IllegalArgumentException("Malformed varint in audit segment");
+    }
+}
@@ -0,0 +1,166 @@
+package com.docuflow.retention;
+
+import com.docuflow.model.AuditSegment;
+import com.docuflow.model.DocumentAudit;
+import com.docuflow.repository.AuditSegmentRepository;
+import com.docuflow.repository.DocumentAuditRepository;
+import com.docuflow.repository.JobLockRepository;
+import com.docuflow.repository.KeysetCursor;
+import com.docuflow.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the hot collections small. Read notifications expire through the TTL index on {@code readAt}; this job
+ * only stamps the ones read before that field existed. Audits older than {@code hot-days} are moved, oldest
+ * first, into {@link AuditSegment}s of one UTC day and at most {@code segment-size} rows, and then deleted from
+ * document_audits. A segment is written before its rows are deleted. Archiving goes strictly in (at, _id) order,
+ * so hot rows at or before the newest archived row were left behind by an interrupted delete; the next run only
+ * deletes them instead of archiving them again. The audit API reads both tiers.
+ */
+@Service
+public class RetentionService {
+
+    static final String JOB = "retention";
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+
+    private final DocumentAuditRepository audits;
+    private final AuditSegmentRepository segments;
+    private final NotificationRepository notifications;
+    private final JobLockRepository locks;
+    private final Counter archived;
+    private final DistributionSummary segmentBytes;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${app.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.retention.audits.hot-days:90}")
+    private int hotDays;
+
+    @Value("${app.retention.audits.segment-size:5000}")
+    private int segmentSize;
+
+    @Value("${app.retention.lease:PT10M}")
+    private Duration lease;
+
+    public RetentionService(DocumentAuditRepository audits, AuditSegmentRepository segments, NotificationRepository notifications,
+                            JobLockRepository locks, MeterRegistry meters) {
+        this.audits = audits;
+        this.segments = segments;
+        this.notifications = notifications;
+        this.locks = locks;
+        this.archived = Counter.builder("docuflow.retention.audits.archived").register(meters);
+        this.segmentBytes = DistributionSummary.builder("docuflow.retention.segment.bytes").baseUnit("bytes").register(meters);
+    }
+
+    @Scheduled(cron = "${app.retention.cron:0 30 3 * * *}", zone = "UTC")
+    public void run() {
+        if (!enabled) return;
+        // one node runs the job; the lease is renewed per segment and released at the end
+        if (!locks.acquire(JOB, owner, Instant.now().plus(lease))) return;
+        try {
+            long stamped = notifications.stampReadAt(Instant.now());
+            if (stamped > 0) log.info("Stamped readAt on {} read notifications", stamped);
+            int rows = archiveAudits(Instant.now().minus(hotDays, ChronoUnit.DAYS));
+            if (rows > 0) log.info("Archived {} audits older than {} days", rows, hotDays);
+        } finally {
+            locks.release(JOB, owner);
+        }
+    }
+
+    /** Moves every audit stamped before {@code cutoff} into segments and returns how many were moved. */
+    int archiveAudits(Instant cutoff) {
+        int total = 0;
+        KeysetCursor archivedUpTo = archivedUpTo();
+        while (true) {
+            List<DocumentAudit> batch = audits.findOldest(cutoff, segmentSize);
+            if (batch.isEmpty()) return total;
+            int stale = 0;
+            while (stale < batch.size() && notAfter(batch.get(stale), archivedUpTo)) stale++;
+            if (stale > 0) {
+                List<String> ids = new ArrayList<>(stale);
+                for (DocumentAudit a : batch.subList(0, stale)) ids.add(a.getId());
+                audits.deleteAllById(ids);
+                log.info("Deleted {} audits that were already archived", stale);
+                continue;
+            }
+            // a segment never spans two days; the rest of the batch starts the next one
+            LocalDate day = LocalDate.ofInstant(batch.get(0).getAt(), ZoneOffset.UTC);
+            Instant nextDay = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            int end = 0;
+            while (end < batch.size() && batch.get(end).getAt().isBefore(nextDay)) end++;
+            List<DocumentAudit> rows = batch.subList(0, end);
+
+            AuditSegment s = segment(day, rows);
+            segments.save(s);
+            DocumentAudit last = rows.get(rows.size() - 1);
+            archivedUpTo = new KeysetCursor(last.getAt(), last.getId());
+            List<String> ids = new ArrayList<>(rows.size());
+            for (DocumentAudit a : rows) ids.add(a.getId());
+            audits.deleteAllById(ids);
+            archived.increment(rows.size());
+            segmentBytes.record(s.getData().length);
+            total += rows.size();
+            if (!locks.acquire(JOB, owner, Instant.now().plus(lease))) {
+                log.warn("Lost the retention lease, stopping after {} audits", total);
+                return total;
+            }
+        }
+    }
+
+    /** Position of the newest archived audit, or null when nothing is archived yet. */
+    private KeysetCursor archivedUpTo() {
+        KeysetCursor mark = null;
+        for (AuditSegment s : segments.findNewest()) {
+            List<DocumentAudit> rows = AuditSegmentCodec.decode(s.getData());
+            if (rows.isEmpty()) continue;
+            DocumentAudit last = rows.get(rows.size() - 1);
+            if (mark == null || !notAfter(last, mark)) mark = new KeysetCursor(last.getAt(), last.getId());
+        }
+        return mark;
+    }
+
+    /** Whether the audit sorts at or before {@code mark} in (at, _id) order. */
+    static boolean notAfter(DocumentAudit a, KeysetCursor mark) {
+        if (mark == null) return false;
+        return mark.admits(a.getAt(), a.getId()) || (a.getAt().equals(mark.getAt()) && a.getId().equals(mark.getId()));
+    }
+
+    static AuditSegment segment(LocalDate day, List<DocumentAudit> rows) {
+        Set<String> documentIds = new LinkedHashSet<>();
+        Set<String> actors = new LinkedHashSet<>();
+        for (DocumentAudit a : rows) {
+            if (a.getDocumentId() != null) documentIds.add(a.getDocumentId());
+            if (a.getActor() != null) actors.add(a.getActor());
+        }
+        AuditSegment s = new AuditSegment();
+        s.setId(day + ":" + rows.get(0).getId());
+        s.setDay(day.toString());
+        s.setFrom(rows.get(0).getAt());
+        s.setTo(rows.get(rows.size() - 1).getAt());
+        s.setCount(rows.size());
+        s.setDocumentIds(new ArrayList<>(documentIds));
+        s.setActors(new ArrayList<>(actors));
+        s.setData(AuditSegmentCodec.encode(rows));
+        return s;
+    }
+}
@@ -0,0 +1,35 @@
+package com.docuflow.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/** The roles workflow definitions may grant transitions to; authorities are built once, not per request. */
+public enum Role {
+    SUBMITTER("Submitter"), REVIEWER("Reviewer"), APPROVER("Approver");
+
+    private static final Role[] VALUES = values();
+
+    private final String label;
+    private final List<GrantedAuthority> authorities;
+
+    Role(String label) {
+        this.label = label;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + name()));
+    }
+
+    /** The name used in workflow definitions, tokens and the frontend. */
+    public String label() { return label; }
+
+    public List<GrantedAuthority> authorities() { return authorities; }
+
+    /** Case-insensitive match on the label; null for anything else. */
+    public static Role parse(String s) {
+        if (s == null) return null;
+        for (Role r : VALUES) {
+            if (r.label.equalsIgnoreCase(s)) return r;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.docuflow.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates {@code Authorization: Bearer} tokens through {@link TokenService}. Requests without a token pass
+ * through anonymous and are left to the authorization rules; a token that does not verify is a 401 straight away.
+ * EventSource cannot set headers, so notification streams may pass the token as {@code access_token} instead.
+ */
+public class TokenAuthFilter extends OncePerRequestFilter {
+
+    static final String BEARER = "Bearer ";
+
+    private final TokenService tokens;
+
+    public TokenAuthFilter(TokenService tokens) { this.tokens = tokens; }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain) throws ServletException, IOException {
+        String token = token(req);
+        if (token != null) {
+            TokenAuthentication auth = tokens.authenticate(token);
+            if (auth == null) {
+                res.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+                res.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+            ctx.setAuthentication(auth);
+            SecurityContextHolder.setContext(ctx);
+        }
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // async dispatches (SSE, streamed bodies) go through authorization again; re-reading the token is a cache hit
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() { return false; }
+
+    static String token(HttpServletRequest req) {
+        String h = req.getHeader("Authorization");
+        if (h != null && h.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            String t = h.substring(BEARER.length()).trim();
+            return t.isEmpty() ? null : t;
+        }
+        if (req.getRequestURI().endsWith("/stream")) {
+            String t = req.getParameter("access_token");
+            return t == null || t.isEmpty() ? null : t;
+        }
+        return null;
+    }
+}
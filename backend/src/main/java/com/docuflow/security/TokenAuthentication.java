@@ -0,0 +1,30 @@
+package com.docuflow.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.time.Instant;
+
+/**
+ * A verified token, cached and reused as is for every request that presents the same token. It is authenticated
+ * from construction and nothing in the app sets details on it.
+ */
+public final class TokenAuthentication extends AbstractAuthenticationToken {
+
+    private final UserPrincipal principal;
+    private final Instant expiresAt;
+
+    TokenAuthentication(UserPrincipal principal, Instant expiresAt) {
+        super(principal.role().authorities());
+        this.principal = principal;
+        this.expiresAt = expiresAt;
+        super.setAuthenticated(true);
+    }
+
+    @Override
+    public UserPrincipal getPrincipal() { return principal; }
+
+    @Override
+    public Object getCredentials() { return null; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,139 @@
+package com.docuflow.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issues and verifies HS256 JWTs ({@code sub}, {@code role}, {@code iat}, {@code exp}) signed with a local key.
+ * Verified tokens are kept in a bounded LRU with their ready-made {@link TokenAuthentication}, so a request with a
+ * known token costs one cache lookup and an expiry check; only a new token pays for the HMAC and the JSON parse.
+ * Without {@code app.security.token-secret} a random key is generated, which means tokens do not survive a
+ * restart and are not accepted by other nodes.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    // the only header we issue or accept, which rules out alg=none and algorithm confusion
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    static final int MIN_KEY_BYTES = 32;
+
+    public record Issued(String token, String username, String role, Instant expiresAt) {}
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ObjectMapper mapper;
+    private final Cache<String, TokenAuthentication> verified;
+
+    public TokenService(@Value("${app.security.token-secret:}") String secret,
+                        @Value("${app.security.token-ttl:PT8H}") Duration ttl,
+                        @Value("${app.security.token-cache-size:10000}") int cacheSize,
+                        ObjectMapper mapper, MeterRegistry meters) {
+        byte[] raw;
+        if (secret == null || secret.isBlank()) {
+            raw = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(raw);
+            log.warn("app.security.token-secret is not set; using a random key, tokens are valid on this node until it restarts");
+        } else {
+            raw = Base64.getDecoder().decode(secret.trim());
+            if (raw.length < MIN_KEY_BYTES) throw new IllegalArgumentException("app.security.token-secret must be at least " + MIN_KEY_BYTES + " bytes, base64");
+        }
+        this.key = new SecretKeySpec(raw, ALGORITHM);
+        this.ttl = ttl;
+        this.mapper = mapper;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meters, verified, "auth.tokens");
+    }
+
+    public Issued issue(UserPrincipal user) {
+        Instant now = Instant.now();
+        Instant exp = now.plus(ttl);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.username());
+        claims.put("role", user.role().label());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", exp.getEpochSecond());
+        String body;
+        try {
+            body = HEADER + "." + ENCODER.encodeToString(mapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Issued(body + "." + ENCODER.encodeToString(sign(body)), user.username(), user.role().label(), Instant.ofEpochSecond(exp.getEpochSecond()));
+    }
+
+    /** The authentication for a valid, unexpired token, or null. */
+    public TokenAuthentication authenticate(String token) {
+        TokenAuthentication a = verified.getIfPresent(token);
+        if (a == null) {
+            a = verify(token);
+            if (a == null) return null;
+            verified.put(token, a);
+        }
+        if (a.getExpiresAt().isAfter(Instant.now())) return a;
+        verified.invalidate(token);
+        return null;
+    }
+
+    /** Full check without the cache: header, signature, then claims. */
+    TokenAuthentication verify(String token) {
+        int dot1 = HEADER.length();
+        int dot2 = token.lastIndexOf('.');
+        if (dot2 <= dot1 + 1 || !token.startsWith(HEADER) || token.charAt(dot1) != '.') return null;
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(dot2 + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, sign(token.substring(0, dot2)))) return null;
+        try {
+            JsonNode claims = mapper.readTree(Base64.getUrlDecoder().decode(token.substring(dot1 + 1, dot2)));
+            String sub = claims.path("sub").asText(null);
+            Role role = Role.parse(claims.path("role").asText(null));
+            long exp = claims.path("exp").asLong(0);
+            if (sub == null || sub.isBlank() || role == null || exp == 0) return null;
+            return new TokenAuthentication(new UserPrincipal(sub, role), Instant.ofEpochSecond(exp));
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String data) {
+        try {
+            // Mac instances are not thread-safe; creating one is cheap next to the cache misses that need it
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
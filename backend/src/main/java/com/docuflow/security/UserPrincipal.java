@@ -0,0 +1,12 @@
+package com.docuflow.security;
+
+import java.security.Principal;
+
+/** The authenticated caller; controllers receive it with {@code @AuthenticationPrincipal}. */
+public record UserPrincipal(String username, Role role) implements Principal {
+
+    @Override
+    public String getName() { return username; }
+
+    public boolean is(Role r) { return role == r; }
+}
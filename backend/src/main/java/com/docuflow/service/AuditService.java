@@ -1,83 +1,277 @@
 package com.docuflow.service;
 
+import com.docuflow.config.Threads;
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
 import com.docuflow.model.DocumentAudit;
-import com.docuflow.model.Notification;
 import com.docuflow.repository.DocumentAuditRepository;
-import com.docuflow.repository.NotificationRepository;
-import org.apache.pulsar.client.api.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Records workflow audits off the request path. {@link #record} only enqueues; a single writer thread
+ * groups queued audits into insertMany batches (flush-size or flush-interval, whichever comes first)
+ * and then publishes their doc-events, where consumers carry out the side effects. When the queue is full
+ * the caller writes its own audit, which slows producers down instead of dropping events.
+ *
+ * <p>A failed insert is retried with backoff; a batch that still fails is parked with its events and retried by
+ * the writer every park-retry interval, so no event goes out for a change whose audit is not stored. Once
+ * queue-capacity entries are parked, writers keep retrying in place for up to overflow-wait before parking anyway;
+ * during shutdown they park straight away. Whatever is still parked when the service stops is counted as dropped.
+ *
+ * <p>Meters: {@code docuflow.audit.queue.depth}, {@code docuflow.audit.batch.size}, {@code docuflow.audit.inline.writes},
+ * {@code docuflow.audit.write.failures}, {@code docuflow.audit.parked} and {@code docuflow.audit.dropped}.
+ */
 @Service
 public class AuditService {
 
+	private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+	private static final long MAX_BACKOFF_MS = 10_000;
+
 	private final DocumentAuditRepository repo;
-	private final NotificationRepository notificationRepo;
-	private PulsarClient client;
-	private Producer<byte[]> producer;
+	private final DocEventBus bus;
+
+	@Value("${app.audit.queue-capacity:10000}")
+	private int queueCapacity;
+	@Value("${app.audit.flush-size:500}")
+	private int flushSize;
+	@Value("${app.audit.flush-interval-ms:100}")
+	private long flushIntervalMs;
+	@Value("${app.audit.offer-timeout-ms:50}")
+	private long offerTimeoutMs;
+	@Value("${app.audit.retry-attempts:3}")
+	private int retryAttempts;
+	@Value("${app.audit.retry-backoff-ms:200}")
+	private long retryBackoffMs;
+	@Value("${app.audit.parked-retry-interval-ms:5000}")
+	private long parkedRetryIntervalMs;
+	@Value("${app.audit.overflow-wait-ms:30000}")
+	private long overflowWaitMs;
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	private BlockingQueue<Entry> queue;
+	private Thread writer;
+	private volatile boolean running;
+	// batches whose insert failed, oldest first, with their events; guarded by itself
+	private final Deque<List<Entry>> parked = new ArrayDeque<>();
+	private final AtomicInteger parkedEntries = new AtomicInteger();
 
-	@Value("${app.pulsar.serviceUrl:pulsar://localhost:6650}")
-	private String pulsarUrl;
+	private final MeterRegistry meters;
+	private final DistributionSummary batchSize;
+	private final Counter inlineWrites;
+	private final Counter auditFailures;
+	private final Counter dropped;
 
-	public AuditService(DocumentAuditRepository repo, NotificationRepository notificationRepo) { this.repo = repo; this.notificationRepo = notificationRepo; }
+	public AuditService(DocumentAuditRepository repo, DocEventBus bus, MeterRegistry meters) {
+		this.repo = repo;
+		this.bus = bus;
+		this.meters = meters;
+		batchSize = DistributionSummary.builder("docuflow.audit.batch.size").description("Entries per audit insertMany").register(meters);
+		inlineWrites = Counter.builder("docuflow.audit.inline.writes").description("Entries written on the caller thread because the queue was full").register(meters);
+		auditFailures = Counter.builder("docuflow.audit.write.failures").description("Entries parked because their insert kept failing").register(meters);
+		Gauge.builder("docuflow.audit.parked", parkedEntries, AtomicInteger::get)
+				.description("Audit entries waiting for Mongo to accept them again")
+				.register(meters);
+		dropped = Counter.builder("docuflow.audit.dropped").description("Entries still unwritten when the service stopped").register(meters);
+	}
 
 	@PostConstruct
 	public void init() {
-		try {
-			client = PulsarClient.builder().serviceUrl(pulsarUrl).build();
-			producer = client.newProducer().topic("persistent://public/default/doc-events").create();
-		} catch (Exception e) {
-			client = null;
-			producer = null;
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		Gauge.builder("docuflow.audit.queue.depth", queue, BlockingQueue::size)
+				.description("Audit entries waiting for the writer")
+				.register(meters);
+		running = true;
+		writer = Threads.start("audit-writer", virtualThreads, this::drainLoop);
+	}
+
+	/** An audit and the doc-event announcing the same change; the event is published once the audit is stored. */
+	public record Entry(DocumentAudit audit, DocumentEvent event) {}
+
+	public void record(Entry e) {
+		if (!enqueue(e)) {
+			// queue saturated or shutting down: write inline so the event is not lost
+			inlineWrites.increment();
+			writeBatch(List.of(e));
+		}
+	}
+
+	/** Queues a batch of entries; whatever does not fit is written inline as a single batch. */
+	public void recordAll(List<Entry> entries) {
+		List<Entry> overflow = new ArrayList<>();
+		for (Entry e : entries) {
+			if (overflow.isEmpty() && enqueue(e)) continue;
+			overflow.add(e);
+		}
+		if (!overflow.isEmpty()) {
+			inlineWrites.increment(overflow.size());
+			writeBatch(overflow);
 		}
 	}
 
-	public void record(String documentId, String actor, String action, String details) {
+	public static DocumentAudit audit(String documentId, String actor, String action, String details, Instant at) {
 		DocumentAudit a = new DocumentAudit();
 		a.setDocumentId(documentId);
 		a.setActor(actor);
 		a.setAction(action);
-		a.setAt(Instant.now());
+		a.setAt(at);
 		a.setDetails(details);
-		repo.save(a);
+		return a;
+	}
+
+	private boolean enqueue(Entry e) {
+		try {
+			return running && queue.offer(e, offerTimeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
 
-		// create notification for approval
-		if ("APPROVED".equalsIgnoreCase(action)) {
+	private void drainLoop() {
+		List<Entry> batch = new ArrayList<>(flushSize);
+		long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+		long nextParkedRetry = 0;
+		while (running || !queue.isEmpty()) {
+			if (parkedEntries.get() > 0 && System.nanoTime() - nextParkedRetry >= 0) {
+				retryParked();
+				nextParkedRetry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(parkedRetryIntervalMs);
+			}
 			try {
-				// look up document author is not available here; the caller can pass details like from=oldstate;author=username
-				String author = null;
-				if (details != null && details.contains("author=")) {
-					String[] parts = details.split("author=");
-					if (parts.length>1) author = parts[1].split(";")[0];
-				}
-				if (author != null) {
-					Notification n = new Notification();
-					n.setUsername(author);
-					n.setMessage("Your document has been approved successfully");
-					n.setCreatedAt(Instant.now());
-					n.setRead(false);
-					notificationRepo.save(n);
+				Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+				if (first == null) continue;
+				batch.add(first);
+				long deadline = System.nanoTime() + intervalNanos;
+				while (batch.size() < flushSize) {
+					if (queue.drainTo(batch, flushSize - batch.size()) > 0) continue;
+					long wait = deadline - System.nanoTime();
+					Entry next = wait > 0 && running ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+					if (next == null) break;
+					batch.add(next);
 				}
-			} catch (Exception ignored) {}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (!batch.isEmpty()) {
+				writeBatch(batch);
+				batch.clear();
+			}
 		}
+	}
 
-		if (producer != null) {
+	private void writeBatch(List<Entry> batch) {
+		batchSize.record(batch.size());
+		if (store(batch, retryAttempts)) return;
+		if (parkedEntries.get() < queueCapacity || !running) {
+			park(batch);
+			return;
+		}
+		// too much parked already: hold this writer (and through the queue, producers) while Mongo recovers
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(overflowWaitMs);
+		while (!store(batch, retryAttempts)) {
+			if (!running || Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0) {
+				log.warn("Parking {} audit records beyond the parked limit of {}", batch.size(), queueCapacity);
+				park(batch);
+				return;
+			}
+		}
+	}
+
+	/** Inserts the audits, then publishes their events; false when the insert failed {@code attempts} times. */
+	private boolean store(List<Entry> batch, int attempts) {
+		List<DocumentAudit> audits = new ArrayList<>(batch.size());
+		List<DocumentEvent> events = new ArrayList<>(batch.size());
+		for (Entry e : batch) {
+			audits.add(e.audit());
+			if (e.event() != null) events.add(e.event());
+		}
+		long backoff = retryBackoffMs;
+		for (int attempt = 1; ; attempt++) {
 			try {
-				String payload = String.format("{\"documentId\":\"%s\",\"actor\":\"%s\",\"action\":\"%s\",\"details\":\"%s\"}", documentId, actor, action, details == null ? "" : details.replaceAll("\"", "\\\""));
-				producer.send(payload.getBytes());
-			} catch (Exception ex) {
-				// ignore
+				repo.insertAll(audits);
+				break;
+			} catch (RuntimeException e) {
+				if (attempt >= attempts || !pause(backoff)) {
+					log.error("Failed to write {} audit records after {} attempts", audits.size(), attempt, e);
+					return false;
+				}
+				backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
 			}
 		}
+		if (!events.isEmpty()) bus.publish(events);
+		return true;
+	}
+
+	private void park(List<Entry> batch) {
+		auditFailures.increment(batch.size());
+		synchronized (parked) {
+			parked.addLast(List.copyOf(batch));
+		}
+		parkedEntries.addAndGet(batch.size());
+	}
+
+	/** Writes parked batches oldest first, one attempt each, until one still fails. */
+	private void retryParked() {
+		while (true) {
+			List<Entry> batch;
+			synchronized (parked) {
+				batch = parked.peekFirst();
+			}
+			if (batch == null || !store(batch, 1)) return;
+			synchronized (parked) {
+				parked.removeFirst();
+			}
+			parkedEntries.addAndGet(-batch.size());
+			log.info("Wrote {} parked audit records", batch.size());
+		}
+	}
+
+	private static boolean pause(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
 	}
 
 	@PreDestroy
 	public void shutdown() {
-		try { if (producer != null) producer.close(); } catch (Exception ignored) {}
-		try { if (client != null) client.close(); } catch (Exception ignored) {}
+		running = false;
+		if (writer != null) {
+			// no interrupt: the writer sees the flag within one flush interval and must not abort a Mongo write midway
+			try { writer.join(TimeUnit.SECONDS.toMillis(30)); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+		}
+		// anything the writer could not take before it stopped
+		List<Entry> rest = new ArrayList<>();
+		if (queue != null) queue.drainTo(rest);
+		if (!rest.isEmpty()) writeBatch(rest);
+		retryParked();
+		int unwritten = parkedEntries.get();
+		if (unwritten > 0) {
+			dropped.increment(unwritten);
+			log.error("Shutting down with {} audit records not written; their doc-events were not published", unwritten);
+		}
 	}
 }
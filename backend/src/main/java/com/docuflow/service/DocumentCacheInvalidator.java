@@ -0,0 +1,51 @@
+package com.docuflow.service;
+
+import com.docuflow.config.CacheConfig;
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Keeps the {@link CacheConfig#DOCUMENTS} cache coherent across nodes by evicting every document a doc-event
+ * says was changed. The subscription is a broadcast one, so every node sees every change. Events from this node
+ * arrive too, which also evicts anything a concurrent read re-cached between a local write and its eviction.
+ */
+@Service
+public class DocumentCacheInvalidator {
+
+    static final String SUBSCRIPTION = "cache";
+
+    private final DocEventBus bus;
+    private final Cache documents;
+    private final Counter invalidations;
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    public DocumentCacheInvalidator(DocEventBus bus, CacheManager caches, MeterRegistry meters) {
+        this.bus = bus;
+        this.documents = caches.getCache(CacheConfig.DOCUMENTS);
+        this.invalidations = Counter.builder("docuflow.cache.invalidations").tag("cache", CacheConfig.DOCUMENTS).register(meters);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) bus.subscribe(SUBSCRIPTION, DocEventBus.Delivery.BROADCAST, this::evict);
+    }
+
+    void evict(List<DocumentEvent> events) {
+        for (DocumentEvent e : events) {
+            if (e.type() == DocumentEvent.Type.NOTIFIED || e.documentId() == null) continue;
+            documents.evict(e.documentId());
+            invalidations.increment();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.docuflow.service;
+
+import com.docuflow.config.Threads;
+import com.docuflow.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans new notifications out to the Server-Sent Events streams open on this node. Sends run on a small
+ * dedicated pool so a slow client never stalls the audit writer that publishes here.
+ */
+@Service
+public class NotificationHub {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationHub.class);
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${app.notifications.sse-timeout-ms:1800000}")
+    private long timeoutMs;
+    @Value("${app.notifications.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+    @Value("${app.notifications.push-threads:4}")
+    private int pushThreads;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService pushPool;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void init() {
+        // a blocked send to a slow client costs a whole platform thread, but next to nothing on a virtual one
+        pushPool = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Threads.factory("notification-push-", true))
+                : Executors.newFixedThreadPool(pushThreads, Threads.factory("notification-push-", false));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(Threads.factory("notification-heartbeat-", false));
+        // comment frames keep proxies from closing idle streams and surface dead clients
+        heartbeat.scheduleAtFixedRate(this::ping, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(String username, long unread) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Set<SseEmitter> set = subscribers.computeIfAbsent(username, k -> ConcurrentHashMap.newKeySet());
+        set.add(emitter);
+        Runnable remove = () -> unsubscribe(username, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        try {
+            emitter.send(SseEmitter.event().name("unread-count").data(Map.of("count", unread)));
+        } catch (IOException e) {
+            remove.run();
+        }
+        return emitter;
+    }
+
+    public void publish(Notification n) {
+        Set<SseEmitter> set = subscribers.get(n.getUsername());
+        if (set == null || set.isEmpty()) return;
+        for (SseEmitter emitter : set) {
+            pushPool.execute(() -> send(n.getUsername(), emitter, SseEmitter.event().id(n.getId()).name("notification").data(n)));
+        }
+    }
+
+    public void publishAll(List<Notification> notifications) {
+        for (Notification n : notifications) publish(n);
+    }
+
+    public int connectionCount() {
+        int total = 0;
+        for (Set<SseEmitter> set : subscribers.values()) total += set.size();
+        return total;
+    }
+
+    private void ping() {
+        subscribers.forEach((username, set) -> {
+            for (SseEmitter emitter : set) pushPool.execute(() -> send(username, emitter, SseEmitter.event().comment("ping")));
+        });
+    }
+
+    private void send(String username, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // client went away; completing triggers the cleanup callback
+            unsubscribe(username, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(String username, SseEmitter emitter) {
+        subscribers.computeIfPresent(username, (k, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(SseEmitter::complete));
+        subscribers.clear();
+        pushPool.shutdown();
+        try {
+            if (!pushPool.awaitTermination(5, TimeUnit.SECONDS)) log.warn("Notification push pool did not drain in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
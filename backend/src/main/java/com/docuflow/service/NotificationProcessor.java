@@ -0,0 +1,94 @@
+package com.docuflow.service;
+
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.Notification;
+import com.docuflow.repository.NotificationRepository;
+import com.docuflow.workflow.CompiledWorkflow;
+import com.docuflow.workflow.WorkflowRegistry;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns doc-events into notifications. Transitions are consumed on a shared subscription, so each is handled by
+ * one node: the workflow's NOTIFY_AUTHOR effect decides whether the author hears about it. The notification id
+ * is the event id, which makes redelivery harmless. Stored notifications are announced with a NOTIFIED event that
+ * every node receives, so the push reaches the recipient's stream whichever node it is connected to.
+ */
+@Service
+public class NotificationProcessor {
+
+    static final String SUBSCRIPTION = "notifications";
+    static final String PUSH_SUBSCRIPTION = "notification-push";
+
+    private final DocEventBus bus;
+    private final NotificationRepository repo;
+    private final NotificationHub hub;
+    private final WorkflowRegistry registry;
+
+    public NotificationProcessor(DocEventBus bus, NotificationRepository repo, NotificationHub hub, WorkflowRegistry registry) {
+        this.bus = bus;
+        this.repo = repo;
+        this.hub = hub;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    public void init() {
+        bus.subscribe(SUBSCRIPTION, DocEventBus.Delivery.SHARED, this::createNotifications);
+        bus.subscribe(PUSH_SUBSCRIPTION, DocEventBus.Delivery.BROADCAST, this::push);
+    }
+
+    public static Notification notification(String username, String message, Instant at) {
+        Notification n = new Notification();
+        n.setUsername(username);
+        n.setMessage(message);
+        n.setCreatedAt(at);
+        n.setRead(false);
+        return n;
+    }
+
+    void createNotifications(List<DocumentEvent> events) {
+        List<Notification> due = new ArrayList<>();
+        Map<String, String> documentOf = new HashMap<>();
+        for (DocumentEvent e : events) {
+            Notification n = e.type() == DocumentEvent.Type.TRANSITIONED ? notificationFor(e) : null;
+            if (n == null) continue;
+            due.add(n);
+            documentOf.put(n.getId(), e.documentId());
+        }
+        if (due.isEmpty()) return;
+        List<Notification> created = repo.insertNew(due);
+        List<DocumentEvent> announced = new ArrayList<>(created.size());
+        for (Notification n : created) announced.add(DocumentEvent.notified(n, documentOf.get(n.getId())));
+        bus.publish(announced);
+    }
+
+    private Notification notificationFor(DocumentEvent e) {
+        if (e.author() == null || e.author().isEmpty()) return null;
+        CompiledWorkflow wf = registry.forType(e.documentType());
+        int from = wf.state(e.fromState());
+        int to = wf.state(e.toState());
+        CompiledWorkflow.Transition t = from < 0 || to < 0 ? null : wf.transition(from, to);
+        if (t == null || !t.notifyAuthor()) return null;
+        String message = t.message() == null ? "Your document is now " + e.toState() : t.message();
+        Notification n = notification(e.author(), message, e.at());
+        n.setId(e.id());
+        return n;
+    }
+
+    void push(List<DocumentEvent> events) {
+        for (DocumentEvent e : events) {
+            if (e.type() != DocumentEvent.Type.NOTIFIED) continue;
+            Notification n = notification(e.author(), e.message(), e.at());
+            n.setId(e.refId());
+            hub.publish(n);
+        }
+    }
+}
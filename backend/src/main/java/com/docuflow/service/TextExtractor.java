@@ -0,0 +1,57 @@
+package com.docuflow.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls indexable text out of the start of an upload. Only plain-text formats are understood; for anything
+ * else {@link #supports} is false and documents are searchable by title and tags alone.
+ */
+public final class TextExtractor {
+
+    /** How much of a file is read for indexing. */
+    public static final int MAX_BYTES = 256 * 1024;
+    /** Cap on the stored text, which keeps the text index and cached documents small. */
+    public static final int MAX_CHARS = 64 * 1024;
+
+    private static final Set<String> TEXT_TYPES = Set.of("application/json", "application/xml", "application/x-yaml", "application/yaml", "application/javascript", "application/x-sh");
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "csv", "tsv", "json", "xml", "html", "htm", "yaml", "yml", "log", "ini", "properties");
+    private static final Pattern MARKUP = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextExtractor() {}
+
+    public static boolean supports(String contentType, String fileName) {
+        String type = mediaType(contentType);
+        if (type.startsWith("text/") || TEXT_TYPES.contains(type)) return true;
+        if (fileName == null) return false;
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && TEXT_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** Text of a supported file's first bytes; invalid UTF-8 is replaced rather than rejected. */
+    public static String extract(byte[] head, String contentType, String fileName) {
+        String text = new String(head, StandardCharsets.UTF_8);
+        String type = mediaType(contentType);
+        if (type.contains("html") || type.contains("xml") || (fileName != null && fileName.matches("(?i).*\\.(html?|xml)$"))) {
+            text = MARKUP.matcher(text).replaceAll(" ");
+        }
+        return normalize(text);
+    }
+
+    /** Collapses whitespace and truncates to {@link #MAX_CHARS}; null for blank input. */
+    public static String normalize(String text) {
+        if (text == null) return null;
+        String t = WHITESPACE.matcher(text).replaceAll(" ").trim();
+        if (t.isEmpty()) return null;
+        return t.length() > MAX_CHARS ? t.substring(0, MAX_CHARS) : t;
+    }
+
+    private static String mediaType(String contentType) {
+        if (contentType == null) return "";
+        int semi = contentType.indexOf(';');
+        return (semi < 0 ? contentType : contentType.substring(0, semi)).trim().toLowerCase(Locale.ROOT);
+    }
+}
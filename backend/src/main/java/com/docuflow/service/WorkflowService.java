@@ -0,0 +1,188 @@
+package com.docuflow.service;
+
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.DocumentAudit;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.repository.DocumentRepository;
+import com.docuflow.workflow.CompiledWorkflow;
+import com.docuflow.workflow.TransitionClause;
+import com.docuflow.workflow.WorkflowRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies workflow transitions, single and bulk, against the compiled definitions in {@link WorkflowRegistry}.
+ * Each call is timed as {@code docuflow.workflow.transition} (single) or {@code docuflow.workflow.transition.bulk},
+ * tagged with the target state and, for single transitions, the outcome.
+ */
+@Service
+public class WorkflowService {
+
+    public static final int MAX_BULK = 1000;
+
+    public enum Outcome {
+        APPLIED(202), INVALID(400), FORBIDDEN(403), NOT_FOUND(404), CONFLICT(409);
+
+        private final int status;
+        Outcome(int status) { this.status = status; }
+        public int status() { return status; }
+    }
+
+    public record Result(String id, Outcome outcome, String from) {}
+
+    private final DocumentRepository repo;
+    private final AuditService auditService;
+    private final WorkflowRegistry registry;
+    private final MeterRegistry meters;
+    private final DistributionSummary bulkSize;
+
+    public WorkflowService(DocumentRepository repo, AuditService auditService, WorkflowRegistry registry, MeterRegistry meters) {
+        this.repo = repo;
+        this.auditService = auditService;
+        this.registry = registry;
+        this.meters = meters;
+        this.bulkSize = DistributionSummary.builder("docuflow.workflow.transition.bulk.size").register(meters);
+    }
+
+    /** Null when the role may move some document into {@code state}, otherwise why not. */
+    public Outcome checkRole(String state, String role) {
+        if (!registry.knowsState(state)) return Outcome.INVALID;
+        return registry.clauses(state, role).isEmpty() ? Outcome.FORBIDDEN : null;
+    }
+
+    /**
+     * Applies the transition with a single findAndModify whose filter is the union of every workflow's allowed
+     * source states (and author guard) for this role. When it matches nothing the document is re-read only to
+     * pick the outcome: missing, not allowed for the role, own document, or a current state that does not allow
+     * the move (including losing a race to a concurrent transition).
+     */
+    public Result transition(String id, String state, String role, String actingUser) {
+        Timer.Sample sample = Timer.start(meters);
+        Result r = doTransition(id, state, role, actingUser);
+        sample.stop(meters.timer("docuflow.workflow.transition", "state", stateTag(state), "outcome", r.outcome().name()));
+        return r;
+    }
+
+    private Result doTransition(String id, String state, String role, String actingUser) {
+        Outcome denied = checkRole(state, role);
+        if (denied != null) return new Result(id, denied, null);
+        List<TransitionClause> clauses = registry.clauses(state, role);
+
+        Instant now = Instant.now();
+        DocumentMetadata before = repo.transition(id, clauses, actingUser, state, now);
+        if (before == null) {
+            DocumentMetadata d = repo.findById(id).orElse(null);
+            if (d == null) return new Result(id, Outcome.NOT_FOUND, null);
+            Outcome why = check(registry.forType(d.getDocumentType()), d, state, role, actingUser);
+            return new Result(id, why == null ? Outcome.CONFLICT : why, d.getWorkflowState());
+        }
+        auditService.record(entry(id, state, actingUser, before, now));
+        return new Result(id, Outcome.APPLIED, before.getWorkflowState());
+    }
+
+    /**
+     * Validates every document with one projected read, applies the eligible ones in one bulkWrite and hands
+     * the audits to the writer as one batch. Results come back in request order, one per distinct id.
+     */
+    public List<Result> transitionAll(Collection<String> ids, String state, String role, String actingUser) {
+        Timer.Sample sample = Timer.start(meters);
+        List<Result> results = doTransitionAll(ids, state, role, actingUser);
+        sample.stop(meters.timer("docuflow.workflow.transition.bulk", "state", stateTag(state)));
+        bulkSize.record(results.size());
+        return results;
+    }
+
+    /** Unknown targets come from user input, so they share one tag value instead of growing the series count. */
+    private String stateTag(String state) {
+        return registry.knowsState(state) ? state : "unknown";
+    }
+
+    private List<Result> doTransitionAll(Collection<String> ids, String state, String role, String actingUser) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        Outcome denied = checkRole(state, role);
+        if (denied != null) {
+            List<Result> all = new ArrayList<>(distinct.size());
+            for (String id : distinct) all.add(new Result(id, denied, null));
+            return all;
+        }
+
+        Map<String, DocumentMetadata> current = new HashMap<>();
+        for (DocumentMetadata d : repo.findStates(distinct)) current.put(d.getId(), d);
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        Map<String, String> expectedFrom = new LinkedHashMap<>();
+        Set<String> guarded = new HashSet<>();
+        for (String id : distinct) {
+            DocumentMetadata d = current.get(id);
+            if (d == null) {
+                results.put(id, new Result(id, Outcome.NOT_FOUND, null));
+                continue;
+            }
+            CompiledWorkflow wf = registry.forType(d.getDocumentType());
+            Outcome why = check(wf, d, state, role, actingUser);
+            if (why != null) {
+                results.put(id, new Result(id, why, d.getWorkflowState()));
+                continue;
+            }
+            results.put(id, null);
+            expectedFrom.put(id, d.getWorkflowState());
+            if (wf.transition(wf.state(d.getWorkflowState()), wf.state(state)).notAuthor()) guarded.add(id);
+        }
+
+        Instant at = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Set<String> applied = repo.transitionAll(expectedFrom, guarded, actingUser, state, at);
+        List<AuditService.Entry> entries = new ArrayList<>(applied.size());
+        for (Map.Entry<String, String> e : expectedFrom.entrySet()) {
+            String id = e.getKey();
+            if (applied.contains(id)) {
+                results.put(id, new Result(id, Outcome.APPLIED, e.getValue()));
+                entries.add(entry(id, state, actingUser, current.get(id), at));
+            } else {
+                results.put(id, new Result(id, Outcome.CONFLICT, e.getValue()));
+            }
+        }
+        auditService.recordAll(entries);
+        return new ArrayList<>(results.values());
+    }
+
+    /** Null when the workflow lets this role move the document into {@code to} right now. */
+    private static Outcome check(CompiledWorkflow wf, DocumentMetadata d, String to, String role, String actingUser) {
+        int target = wf.state(to);
+        if (target < 0) return Outcome.INVALID;
+        int r = wf.role(role);
+        if (r < 0 || !wf.canEnter(target, r)) return Outcome.FORBIDDEN;
+        int from = wf.state(d.getWorkflowState());
+        if (from < 0 || !wf.allows(from, r, target)) return Outcome.CONFLICT;
+        // Prevent author from performing verification steps
+        if (wf.transition(from, target).notAuthor() && actingUser.equals(d.getAuthor())) return Outcome.FORBIDDEN;
+        return null;
+    }
+
+    /** Audit and doc-event for an applied transition; effects such as notifying the author are left to event consumers. */
+    private AuditService.Entry entry(String id, String to, String actingUser, DocumentMetadata before, Instant at) {
+        CompiledWorkflow wf = registry.forType(before.getDocumentType());
+        int from = wf.state(before.getWorkflowState());
+        int target = wf.state(to);
+        // the definition may have been reloaded since the update matched; fall back to the plain action
+        CompiledWorkflow.Transition t = from < 0 || target < 0 ? null : wf.transition(from, target);
+        String action = t == null ? to.toUpperCase() : t.action();
+        String details = "from=" + before.getWorkflowState() + ";author=" + (before.getAuthor() == null ? "" : before.getAuthor());
+        DocumentAudit audit = AuditService.audit(id, actingUser, action, details, at);
+        DocumentEvent event = DocumentEvent.transitioned(id, actingUser, before.getAuthor(), before.getDocumentType(), before.getWorkflowState(), to, action, at);
+        return new AuditService.Entry(audit, event);
+    }
+}
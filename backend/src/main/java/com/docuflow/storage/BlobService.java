@@ -0,0 +1,116 @@
+package com.docuflow.storage;
+
+import com.docuflow.model.StoredBlob;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Content-addressed layer over {@link FileStore}: identical uploads are kept once and reference counted. The
+ * digest is taken while the upload streams into the store, so the bytes are read once; when the digest is already
+ * known, the fresh copy is deleted again and the existing blob gains a reference. A blob remembers who sent its
+ * bytes, and only they can reuse or look it up by hash alone, so knowing a digest proves nothing.
+ */
+@Service
+public class BlobService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final MongoTemplate mongo;
+    private final FileStore fileStore;
+
+    public BlobService(MongoTemplate mongo, FileStore fileStore) { this.mongo = mongo; this.fileStore = fileStore; }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && SHA256_HEX.matcher(hash).matches();
+    }
+
+    /**
+     * Stores the source unless a blob with the same digest exists; either way the returned blob carries one more
+     * reference and lists {@code uploader}.
+     */
+    public StoredBlob store(InputStreamSource source, String filename, String contentType, String uploader) throws IOException {
+        MessageDigest md = sha256();
+        StoredFile stored;
+        try (InputStream in = new DigestInputStream(source.getInputStream(), md)) {
+            stored = fileStore.store(in, filename, contentType);
+        }
+        String hash = HexFormat.of().formatHex(md.digest());
+        StoredBlob existing = reference(hash, uploader);
+        if (existing != null) {
+            fileStore.delete(stored.id());
+            return existing;
+        }
+
+        StoredBlob blob = new StoredBlob();
+        blob.setId(hash);
+        blob.setFileId(stored.id());
+        blob.setContentType(contentType);
+        blob.setLength(stored.length());
+        blob.setRefCount(1);
+        blob.setCreatedAt(Instant.now());
+        blob.setUploaders(List.of(uploader));
+        try {
+            return mongo.insert(blob);
+        } catch (DuplicateKeyException raced) {
+            // a concurrent upload of the same bytes won; drop our copy and share theirs
+            fileStore.delete(stored.id());
+            StoredBlob winner = reference(hash, uploader);
+            if (winner == null) throw new IllegalStateException("Blob " + hash + " vanished during upload");
+            return winner;
+        }
+    }
+
+    /** The blob with this digest, or null when the server does not have it or {@code uploader} never sent its bytes. */
+    public StoredBlob find(String hash, String uploader) {
+        return isValidHash(hash) ? mongo.findOne(query(where("_id").is(hash).and("uploaders").is(uploader)), StoredBlob.class) : null;
+    }
+
+    /** Adds a reference to a blob {@code uploader} sent before, or returns null when there is none. */
+    public StoredBlob acquire(String hash, String uploader) {
+        if (!isValidHash(hash)) return null;
+        return mongo.findAndModify(query(where("_id").is(hash).and("uploaders").is(uploader)), new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true), StoredBlob.class);
+    }
+
+    /** Adds a reference to the blob for bytes {@code uploader} has just sent, and records them as its uploader. */
+    private StoredBlob reference(String hash, String uploader) {
+        return mongo.findAndModify(query(where("_id").is(hash)), new Update().inc("refCount", 1).addToSet("uploaders", uploader),
+                FindAndModifyOptions.options().returnNew(true), StoredBlob.class);
+    }
+
+    /** Drops a reference; the stored bytes are deleted together with the last one. */
+    public void release(String hash) {
+        if (!isValidHash(hash)) return;
+        StoredBlob b = mongo.findAndModify(query(where("_id").is(hash)), new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true), StoredBlob.class);
+        if (b == null || b.getRefCount() > 0) return;
+        // guarded on refCount so a concurrent acquire between the two calls keeps the blob alive
+        StoredBlob removed = mongo.findAndRemove(query(where("_id").is(hash).and("refCount").lte(0)), StoredBlob.class);
+        if (removed != null) fileStore.delete(removed.getFileId());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
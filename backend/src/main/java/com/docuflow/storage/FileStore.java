@@ -0,0 +1,23 @@
+package com.docuflow.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Binary storage for uploaded files. Implementations copy the stream in fixed-size chunks and never
+ * hold a whole file in memory; documents only keep the returned {@link StoredFile#id()} as a pointer.
+ */
+public interface FileStore {
+
+    StoredFile store(InputStream in, String filename, String contentType) throws IOException;
+
+    /**
+     * Returns a resource whose every {@code getInputStream()} call opens a fresh stream, so Spring MVC can
+     * serve HTTP Range requests from it, or null when the file does not exist.
+     */
+    Resource load(String fileId);
+
+    void delete(String fileId);
+}
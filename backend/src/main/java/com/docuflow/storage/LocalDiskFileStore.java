@@ -0,0 +1,82 @@
+package com.docuflow.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/** Stores files under {@code app.storage.local.root}, sharded by the first two characters of the id. */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalDiskFileStore implements FileStore {
+
+    private final Path root;
+    private final int chunkSize;
+
+    public LocalDiskFileStore(@Value("${app.storage.local.root:./data/files}") String root,
+                              @Value("${app.storage.chunk-size:261120}") int chunkSize) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create storage root " + this.root, e);
+        }
+    }
+
+    @Override
+    public StoredFile store(InputStream in, String filename, String contentType) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Path target = pathOf(id);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), id, ".part");
+        long total = 0;
+        try (ReadableByteChannel src = Channels.newChannel(in);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long n;
+            while ((n = out.transferFrom(src, total, chunkSize)) > 0) total += n;
+            out.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return new StoredFile(id, filename, contentType, total);
+    }
+
+    @Override
+    public Resource load(String fileId) {
+        Path p = pathOf(fileId);
+        return p == null || !Files.isRegularFile(p) ? null : new FileSystemResource(p);
+    }
+
+    @Override
+    public void delete(String fileId) {
+        Path p = pathOf(fileId);
+        if (p == null) return;
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path pathOf(String id) {
+        // ids are generated hex strings; anything else could escape the root
+        if (id == null || id.length() < 3 || !id.chars().allMatch(c -> Character.digit(c, 16) >= 0)) return null;
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+}
@@ -0,0 +1,4 @@
+package com.docuflow.storage;
+
+public record StoredFile(String id, String filename, String contentType, long length) {
+}
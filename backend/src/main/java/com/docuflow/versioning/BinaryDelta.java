@@ -0,0 +1,131 @@
+package com.docuflow.versioning;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copy/insert deltas in the spirit of xdelta: the source is indexed in fixed blocks, the target is scanned with a
+ * rolling hash, and every block match is extended both ways into a COPY; bytes in between become an ADD. Delta size
+ * tracks how much changed, not how large the document is.
+ * <pre>
+ *   varint sourceLength, varint targetLength, then ops:
+ *   0, varint offset, varint length   copy from source
+ *   1, varint length, bytes           literal bytes
+ * </pre>
+ */
+public final class BinaryDelta {
+
+    private static final int BLOCK = 16;
+    private static final int BASE = 257;
+    private static final int BASE_POW; // BASE^(BLOCK-1), wrapping
+    private static final int COPY = 0;
+    private static final int ADD = 1;
+
+    static {
+        int p = 1;
+        for (int i = 1; i < BLOCK; i++) p *= BASE;
+        BASE_POW = p;
+    }
+
+    private BinaryDelta() {}
+
+    /** A delta that rebuilds {@code target} from {@code source}. */
+    public static byte[] encode(byte[] source, byte[] target) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        putVarint(out, source.length);
+        putVarint(out, target.length);
+
+        Map<Integer, Integer> index = new HashMap<>(Math.max(16, source.length / BLOCK * 2));
+        // walk backwards so the earliest offset wins for repeated blocks
+        for (int at = (source.length / BLOCK - 1) * BLOCK; at >= 0; at -= BLOCK) index.put(hash(source, at), at);
+
+        int literalFrom = 0;
+        int pos = 0;
+        int h = target.length >= BLOCK ? hash(target, 0) : 0;
+        while (pos + BLOCK <= target.length) {
+            Integer at = index.get(h);
+            if (at != null && Arrays.equals(source, at, at + BLOCK, target, pos, pos + BLOCK)) {
+                int s = at;
+                int t = pos;
+                while (s > 0 && t > literalFrom && source[s - 1] == target[t - 1]) { s--; t--; }
+                int len = pos + BLOCK - t;
+                while (s + len < source.length && t + len < target.length && source[s + len] == target[t + len]) len++;
+                if (t > literalFrom) add(out, target, literalFrom, t - literalFrom);
+                out.write(COPY);
+                putVarint(out, s);
+                putVarint(out, len);
+                pos = t + len;
+                literalFrom = pos;
+                if (pos + BLOCK <= target.length) h = hash(target, pos);
+            } else {
+                if (pos + BLOCK < target.length) h = (h - (target[pos] & 0xFF) * BASE_POW) * BASE + (target[pos + BLOCK] & 0xFF);
+                pos++;
+            }
+        }
+        if (literalFrom < target.length) add(out, target, literalFrom, target.length - literalFrom);
+        return out.toByteArray();
+    }
+
+    /** Rebuilds the target; throws IllegalArgumentException when the delta does not belong to this source. */
+    public static byte[] apply(byte[] source, byte[] delta) {
+        int[] pos = {0};
+        if (getVarint(delta, pos) != source.length) throw new IllegalArgumentException("Delta was made against a different source");
+        byte[] target = new byte[getVarint(delta, pos)];
+        int t = 0;
+        try {
+            while (pos[0] < delta.length) {
+                int op = delta[pos[0]++];
+                if (op == COPY) {
+                    int offset = getVarint(delta, pos);
+                    int len = getVarint(delta, pos);
+                    System.arraycopy(source, offset, target, t, len);
+                    t += len;
+                } else if (op == ADD) {
+                    int len = getVarint(delta, pos);
+                    System.arraycopy(delta, pos[0], target, t, len);
+                    pos[0] += len;
+                    t += len;
+                } else {
+                    throw new IllegalArgumentException("Unknown delta op " + op);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt delta", e);
+        }
+        if (t != target.length) throw new IllegalArgumentException("Delta ended early");
+        return target;
+    }
+
+    private static int hash(byte[] b, int from) {
+        int h = 0;
+        for (int i = from; i < from + BLOCK; i++) h = h * BASE + (b[i] & 0xFF);
+        return h;
+    }
+
+    private static void add(ByteArrayOutputStream out, byte[] b, int from, int len) {
+        out.write(ADD);
+        putVarint(out, len);
+        out.write(b, from, len);
+    }
+
+    private static void putVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int getVarint(byte[] b, int[] pos) {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (pos[0] >= b.length) throw new IllegalArgumentException("Truncated delta");
+            byte x = b[pos[0]++];
+            v |= (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+        throw new IllegalArgumentException("Malformed varint in delta");
+    }
+}
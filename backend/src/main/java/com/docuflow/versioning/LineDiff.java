@@ -0,0 +1,126 @@
+package com.docuflow.versioning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Line diff for the versions API. Common leading and trailing lines are trimmed, then Myers' O(ND) algorithm runs
+ * on the rest; past {@link #MAX_EDITS} the middle is reported as one replacement instead of a minimal script.
+ */
+public final class LineDiff {
+
+    static final int MAX_EDITS = 1000;
+
+    public enum Op { EQUAL, DELETE, INSERT }
+
+    /**
+     * A run of lines. {@code oldLine} and {@code newLine} are 1-based positions of the run in each version;
+     * {@code lines} is omitted for EQUAL runs.
+     */
+    public record Change(Op op, int oldLine, int newLine, int count, List<String> lines) {}
+
+    private LineDiff() {}
+
+    public static List<Change> diff(String oldText, String newText) {
+        String[] a = split(oldText);
+        String[] b = split(newText);
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) prefix++;
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) suffix++;
+
+        Builder out = new Builder(a, b);
+        out.add(Op.EQUAL, prefix);
+        Op[] script = myers(a, prefix, a.length - suffix, b, prefix, b.length - suffix);
+        if (script == null) {
+            out.add(Op.DELETE, a.length - suffix - prefix);
+            out.add(Op.INSERT, b.length - suffix - prefix);
+        } else {
+            for (Op op : script) out.add(op, 1);
+        }
+        out.add(Op.EQUAL, suffix);
+        return out.changes;
+    }
+
+    private static String[] split(String text) {
+        return text == null || text.isEmpty() ? new String[0] : text.split("\r?\n", -1);
+    }
+
+    /** Edit script for a[aFrom, aTo) against b[bFrom, bTo), or null when it needs more than MAX_EDITS edits. */
+    private static Op[] myers(String[] a, int aFrom, int aTo, String[] b, int bFrom, int bTo) {
+        int n = aTo - aFrom;
+        int m = bTo - bFrom;
+        int max = Math.min(n + m, MAX_EDITS);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        int found = -1;
+        for (int d = 0; d <= max && found < 0; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[aFrom + x].equals(b[bFrom + y])) { x++; y++; }
+                v[offset + k] = x;
+                if (x >= n && y >= m) { found = d; break; }
+            }
+        }
+        if (found < 0) return null;
+
+        // walk the trace backwards from (n, m), emitting ops in reverse
+        List<Op> rev = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = found; d > 0; d--) {
+            int[] pv = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && pv[offset + k - 1] < pv[offset + k + 1])) ? k + 1 : k - 1;
+            int prevX = pv[offset + prevK];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) { rev.add(Op.EQUAL); x--; y--; }
+            rev.add(prevK == k + 1 ? Op.INSERT : Op.DELETE);
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) { rev.add(Op.EQUAL); x--; y--; }
+        Op[] script = new Op[rev.size()];
+        for (int i = 0; i < script.length; i++) script[i] = rev.get(rev.size() - 1 - i);
+        return script;
+    }
+
+    /** Merges consecutive ops of the same kind into runs and tracks line positions. */
+    private static final class Builder {
+        final String[] a;
+        final String[] b;
+        final List<Change> changes = new ArrayList<>();
+        int i;
+        int j;
+
+        Builder(String[] a, String[] b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        void add(Op op, int count) {
+            if (count == 0) return;
+            Change last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+            if (last != null && last.op() == op) {
+                changes.set(changes.size() - 1, new Change(op, last.oldLine(), last.newLine(), last.count() + count, append(last.lines(), op, count)));
+            } else {
+                changes.add(new Change(op, i + 1, j + 1, count, append(op == Op.EQUAL ? null : new ArrayList<>(), op, count)));
+            }
+            if (op != Op.INSERT) i += count;
+            if (op != Op.DELETE) j += count;
+        }
+
+        private List<String> append(List<String> lines, Op op, int count) {
+            if (lines == null) return null;
+            String[] src = op == Op.DELETE ? a : b;
+            int from = op == Op.DELETE ? i : j;
+            lines.addAll(Arrays.asList(src).subList(from, from + count));
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.docuflow.versioning;
+
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentVersion;
+import com.docuflow.repository.DocumentRepository;
+import com.docuflow.repository.DocumentVersionRepository;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import com.docuflow.service.AuditService;
+import com.docuflow.service.TextExtractor;
+import com.docuflow.workflow.CompiledWorkflow;
+import com.docuflow.workflow.WorkflowRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Content history for inline (non-file) documents. The document always carries the latest content, so reading it
+ * stays one (cached) read. An edit stores the superseded version as a reverse delta, which rebuilds it from the new
+ * content, so history grows with the size of each edit. Every {@code snapshotInterval}th version is stored whole,
+ * and rebuilding any version walks fewer than that many deltas from the nearest newer snapshot or the latest content.
+ * Version records are written before the document moves past them and never change, so a reader always finds the
+ * chain it needs even while edits are in flight.
+ */
+@Service
+public class VersionService {
+
+    public enum Outcome {
+        APPLIED(200), INVALID(400), FORBIDDEN(403), NOT_FOUND(404), CONFLICT(409);
+
+        private final int status;
+        Outcome(int status) { this.status = status; }
+        public int status() { return status; }
+    }
+
+    public record Result(Outcome outcome, int version) {}
+
+    public record VersionInfo(int version, int size, String author, Instant createdAt) {}
+
+    private final DocumentRepository repo;
+    private final DocumentVersionRepository versions;
+    private final AuditService auditService;
+    private final WorkflowRegistry registry;
+    private final int snapshotInterval;
+    private final DistributionSummary storedBytes;
+
+    public VersionService(DocumentRepository repo, DocumentVersionRepository versions, AuditService auditService, WorkflowRegistry registry,
+                          MeterRegistry meters, @Value("${app.versions.snapshot-interval:20}") int snapshotInterval) {
+        this.repo = repo;
+        this.versions = versions;
+        this.auditService = auditService;
+        this.registry = registry;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.storedBytes = DistributionSummary.builder("docuflow.versions.stored.bytes").baseUnit("bytes").register(meters);
+    }
+
+    public static int version(DocumentMetadata d) {
+        return Math.max(1, d.getContentVersion());
+    }
+
+    /**
+     * Replaces the content of {@code id}. With {@code expectedVersion} set the edit only applies on top of that
+     * version; without it, on top of whatever is current when it runs. Concurrent edits of the same version race on
+     * the unique (documentId, version) index and all but one get CONFLICT. Only the author or an Approver may edit,
+     * and only while the workflow can still move the document on: content in a final state such as Approved is
+     * frozen (CONFLICT). The state is re-checked by the update itself, so a transition racing the edit wins.
+     */
+    public Result edit(String id, String content, Integer expectedVersion, UserPrincipal user) {
+        DocumentMetadata d = repo.findById(id).orElse(null);
+        if (d == null) return new Result(Outcome.NOT_FOUND, 0);
+        if (!user.is(Role.APPROVER) && !user.username().equals(d.getAuthor())) return new Result(Outcome.FORBIDDEN, 0);
+        String editor = user.username();
+        // file-backed documents have no inline content; their bytes are versioned by the blob store
+        if (d.getFileId() != null || content == null) return new Result(Outcome.INVALID, 0);
+        int current = version(d);
+        if (!editable(d)) return new Result(Outcome.CONFLICT, current);
+        if (expectedVersion != null && expectedVersion != current) return new Result(Outcome.CONFLICT, current);
+        String old = d.getContent() == null ? "" : d.getContent();
+        if (old.equals(content)) return new Result(Outcome.APPLIED, current);
+
+        byte[] oldBytes = old.getBytes(StandardCharsets.UTF_8);
+        byte[] delta = BinaryDelta.encode(content.getBytes(StandardCharsets.UTF_8), oldBytes);
+        DocumentVersion v = new DocumentVersion();
+        v.setDocumentId(id);
+        v.setVersion(current);
+        v.setSnapshot(current % snapshotInterval == 0 || delta.length >= oldBytes.length);
+        v.setData(v.isSnapshot() ? oldBytes : delta);
+        v.setSize(oldBytes.length);
+        v.setAuthor(d.getContentUpdatedBy() != null ? d.getContentUpdatedBy() : d.getAuthor());
+        v.setCreatedAt(d.getContentUpdatedAt() != null ? d.getContentUpdatedAt() : d.getCreatedAt());
+        try {
+            v = versions.insert(v);
+        } catch (DuplicateKeyException e) {
+            // someone else already superseded this version; our read was stale
+            return new Result(Outcome.CONFLICT, current);
+        }
+        Instant now = Instant.now();
+        boolean updated = false;
+        try {
+            // misses when the document was deleted, edited or moved to another state since we read it
+            updated = repo.updateContent(id, current, d.getWorkflowState(), content, TextExtractor.normalize(content), editor, now);
+        } finally {
+            // nothing may point at a version the document never moved past, including a deleted document
+            if (!updated) versions.deleteById(v.getId());
+        }
+        if (!updated) return new Result(Outcome.CONFLICT, current);
+        storedBytes.record(v.getData().length);
+        auditService.record(new AuditService.Entry(
+                AuditService.audit(id, editor, "EDITED", "version=" + (current + 1), now),
+                DocumentEvent.edited(id, editor, d.getAuthor(), d.getDocumentType(), d.getWorkflowState(), now)));
+        return new Result(Outcome.APPLIED, current + 1);
+    }
+
+    private boolean editable(DocumentMetadata d) {
+        CompiledWorkflow wf = registry.forType(d.getDocumentType());
+        int state = wf.state(d.getWorkflowState());
+        return state >= 0 && !wf.isFinal(state);
+    }
+
+    /** Content at {@code version}, or null when the document has no such version. */
+    public String contentAt(DocumentMetadata d, int version) {
+        int current = version(d);
+        if (version == current) return d.getContent() == null ? "" : d.getContent();
+        if (version < 1 || version > current) return null;
+
+        // versions from the requested one up to the first snapshot, or up to current - 1
+        List<DocumentVersion> chain = new ArrayList<>();
+        int from = version;
+        fetch:
+        while (from < current) {
+            int to = Math.min(current - 1, from + snapshotInterval - 1);
+            for (DocumentVersion v : versions.findRange(d.getId(), from, to)) {
+                if (v.getVersion() != version + chain.size()) throw new IllegalStateException("Version history of " + d.getId() + " has a gap at " + (version + chain.size()));
+                chain.add(v);
+                if (v.isSnapshot()) break fetch;
+            }
+            from = to + 1;
+        }
+        if (chain.isEmpty() || (chain.size() != current - version && !chain.get(chain.size() - 1).isSnapshot())) {
+            throw new IllegalStateException("Version history of " + d.getId() + " ends at " + (version + chain.size() - 1));
+        }
+
+        int i = chain.size() - 1;
+        byte[] bytes;
+        if (chain.get(i).isSnapshot()) {
+            bytes = chain.get(i--).getData();
+        } else {
+            bytes = (d.getContent() == null ? "" : d.getContent()).getBytes(StandardCharsets.UTF_8);
+        }
+        for (; i >= 0; i--) bytes = BinaryDelta.apply(bytes, chain.get(i).getData());
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** The current version followed by older ones, newest first, starting below {@code before}. */
+    public List<VersionInfo> history(DocumentMetadata d, Integer before, int limit) {
+        int current = version(d);
+        int below = before == null ? current + 1 : Math.min(before, current + 1);
+        List<VersionInfo> out = new ArrayList<>(limit);
+        if (below > current) {
+            String content = d.getContent() == null ? "" : d.getContent();
+            out.add(new VersionInfo(current, content.getBytes(StandardCharsets.UTF_8).length,
+                    d.getContentUpdatedBy() != null ? d.getContentUpdatedBy() : d.getAuthor(),
+                    d.getContentUpdatedAt() != null ? d.getContentUpdatedAt() : d.getCreatedAt()));
+            below = current;
+        }
+        if (out.size() < limit && below > 1) {
+            for (DocumentVersion v : versions.findHistory(d.getId(), below, Pageable.ofSize(limit - out.size()))) {
+                out.add(new VersionInfo(v.getVersion(), v.getSize(), v.getAuthor(), v.getCreatedAt()));
+            }
+        }
+        return out;
+    }
+
+    public void deleteHistory(String documentId) {
+        versions.deleteByDocumentId(documentId);
+    }
+}
@@ -0,0 +1,176 @@
+package com.docuflow.workflow;
+
+import com.docuflow.security.Role;
+import com.docuflow.workflow.WorkflowDefinition.Effect;
+import com.docuflow.workflow.WorkflowDefinition.Guard;
+import com.docuflow.workflow.WorkflowDefinition.TransitionDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable lookup tables for one {@link WorkflowDefinition}. States and roles are numbered at compile time;
+ * "may this role move from A to B" is a bit test on a precomputed mask, so checks on the request path only
+ * do map lookups and array reads and never allocate. Role names match case-insensitively.
+ */
+public final class CompiledWorkflow {
+
+    public static final String DEFAULT_TYPE = "default";
+    public static final int MAX_STATES = Long.SIZE;
+
+    /** One allowed edge with its guards and side effects resolved to flags. */
+    public record Transition(String from, String to, String action, boolean notAuthor, boolean notifyAuthor, String message) {}
+
+    private final WorkflowDefinition definition;
+    private final String[] states;
+    private final Map<String, Integer> stateIndex;
+    private final List<String> roles;
+    private final TreeMap<String, Integer> roleIndex;
+    private final long[] targets;      // [from * roleCount + role] -> bitmask of reachable states
+    private final long[] sources;      // [to * roleCount + role]   -> bitmask of states it may be entered from
+    private final Transition[] table;  // [from * stateCount + to]
+    private final List<List<String>> openFrom;    // [to * roleCount + role]
+    private final List<List<String>> guardedFrom; // [to * roleCount + role]
+
+    private CompiledWorkflow(WorkflowDefinition definition, String[] states, Map<String, Integer> stateIndex, List<String> roles,
+                             TreeMap<String, Integer> roleIndex, long[] targets, long[] sources, Transition[] table,
+                             List<List<String>> openFrom, List<List<String>> guardedFrom) {
+        this.definition = definition;
+        this.states = states;
+        this.stateIndex = stateIndex;
+        this.roles = roles;
+        this.roleIndex = roleIndex;
+        this.targets = targets;
+        this.sources = sources;
+        this.table = table;
+        this.openFrom = openFrom;
+        this.guardedFrom = guardedFrom;
+    }
+
+    /** Validates and compiles a definition; throws IllegalArgumentException describing the first problem found. */
+    public static CompiledWorkflow compile(WorkflowDefinition def) {
+        if (def.getId() == null || def.getId().isBlank()) throw new IllegalArgumentException("workflow id is required");
+        List<String> stateList = def.getStates();
+        if (stateList == null || stateList.isEmpty()) throw new IllegalArgumentException(def.getId() + ": no states");
+        if (stateList.size() > MAX_STATES) throw new IllegalArgumentException(def.getId() + ": more than " + MAX_STATES + " states");
+        String[] states = stateList.toArray(new String[0]);
+        Map<String, Integer> stateIndex = new HashMap<>();
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == null || states[i].isBlank()) throw new IllegalArgumentException(def.getId() + ": blank state name");
+            if (stateIndex.putIfAbsent(states[i], i) != null) throw new IllegalArgumentException(def.getId() + ": duplicate state " + states[i]);
+        }
+        if (!stateIndex.containsKey(def.getInitialState())) {
+            throw new IllegalArgumentException(def.getId() + ": initial state " + def.getInitialState() + " is not a declared state");
+        }
+
+        List<TransitionDefinition> defs = def.getTransitions() == null ? List.of() : def.getTransitions();
+        List<String> roles = new ArrayList<>();
+        TreeMap<String, Integer> roleIndex = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (TransitionDefinition t : defs) {
+            if (t.getRoles() == null || t.getRoles().isEmpty()) throw new IllegalArgumentException(def.getId() + ": transition " + t.getFrom() + " -> " + t.getTo() + " has no roles");
+            for (String r : t.getRoles()) {
+                if (r == null || r.isBlank()) throw new IllegalArgumentException(def.getId() + ": blank role name");
+                // tokens only ever carry these roles, so any other name could never match
+                if (Role.parse(r) == null) throw new IllegalArgumentException(def.getId() + ": unknown role " + r);
+                if (roleIndex.putIfAbsent(r, roles.size()) == null) roles.add(r);
+            }
+        }
+
+        int stateCount = states.length;
+        int roleCount = roles.size();
+        long[] targets = new long[stateCount * roleCount];
+        long[] sources = new long[stateCount * roleCount];
+        Transition[] table = new Transition[stateCount * stateCount];
+        List<Set<String>> open = new ArrayList<>();
+        List<Set<String>> guarded = new ArrayList<>();
+        for (int i = 0; i < stateCount * roleCount; i++) {
+            open.add(new HashSet<>());
+            guarded.add(new HashSet<>());
+        }
+        for (TransitionDefinition t : defs) {
+            Integer from = stateIndex.get(t.getFrom());
+            Integer to = stateIndex.get(t.getTo());
+            if (from == null || to == null) throw new IllegalArgumentException(def.getId() + ": transition " + t.getFrom() + " -> " + t.getTo() + " uses an undeclared state");
+            if (table[from * stateCount + to] != null) throw new IllegalArgumentException(def.getId() + ": duplicate transition " + t.getFrom() + " -> " + t.getTo());
+            boolean notAuthor = t.getGuards() != null && t.getGuards().contains(Guard.NOT_AUTHOR);
+            boolean notify = t.getEffects() != null && t.getEffects().contains(Effect.NOTIFY_AUTHOR);
+            String action = t.getAction() == null || t.getAction().isBlank() ? t.getTo().toUpperCase() : t.getAction();
+            table[from * stateCount + to] = new Transition(t.getFrom(), t.getTo(), action, notAuthor, notify, t.getMessage());
+            for (String r : t.getRoles()) {
+                int role = roleIndex.get(r);
+                targets[from * roleCount + role] |= 1L << to;
+                sources[to * roleCount + role] |= 1L << from;
+                (notAuthor ? guarded : open).get(to * roleCount + role).add(t.getFrom());
+            }
+        }
+
+        return new CompiledWorkflow(def, states, Collections.unmodifiableMap(stateIndex), List.copyOf(roles), roleIndex,
+                targets, sources, table, freeze(open), freeze(guarded));
+    }
+
+    private static List<List<String>> freeze(List<Set<String>> sets) {
+        List<List<String>> out = new ArrayList<>(sets.size());
+        for (Set<String> s : sets) out.add(List.copyOf(s));
+        return Collections.unmodifiableList(out);
+    }
+
+    public String documentType() { return definition.getId(); }
+    public long version() { return definition.getVersion(); }
+    public String initialState() { return definition.getInitialState(); }
+    public WorkflowDefinition definition() { return definition; }
+    public int stateCount() { return states.length; }
+    public String stateName(int state) { return states[state]; }
+    public List<String> roles() { return roles; }
+
+    /** Index of the state, or -1 when this workflow does not declare it. */
+    public int state(String name) {
+        if (name == null) return -1;
+        Integer i = stateIndex.get(name);
+        return i == null ? -1 : i;
+    }
+
+    /** Index of the role, or -1 when no transition of this workflow mentions it. */
+    public int role(String name) {
+        if (name == null) return -1;
+        Integer i = roleIndex.get(name);
+        return i == null ? -1 : i;
+    }
+
+    public boolean allows(int from, int role, int to) {
+        return (targets[from * roles.size() + role] & (1L << to)) != 0;
+    }
+
+    /** True when no role can move a document out of {@code state}, e.g. Approved or Rejected. */
+    public boolean isFinal(int state) {
+        for (int r = 0; r < roles.size(); r++) {
+            if (targets[state * roles.size() + r] != 0) return false;
+        }
+        return true;
+    }
+
+    /** True when the role may enter {@code to} from at least one state. */
+    public boolean canEnter(int to, int role) {
+        return sources[to * roles.size() + role] != 0;
+    }
+
+    /** The edge from -> to, or null when there is none. */
+    public Transition transition(int from, int to) {
+        return table[from * states.length + to];
+    }
+
+    /** Source states of unguarded edges into {@code to} for this role. */
+    public List<String> openFrom(int to, int role) {
+        return openFrom.get(to * roles.size() + role);
+    }
+
+    /** Source states of NOT_AUTHOR-guarded edges into {@code to} for this role. */
+    public List<String> guardedFrom(int to, int role) {
+        return guardedFrom.get(to * roles.size() + role);
+    }
+}
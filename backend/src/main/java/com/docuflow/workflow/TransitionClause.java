@@ -0,0 +1,10 @@
+package com.docuflow.workflow;
+
+import java.util.List;
+
+/**
+ * The part of a conditional transition update contributed by one workflow: documents of {@code documentType}
+ * may move when their state is in {@code openFrom}, or in {@code guardedFrom} and the actor is not the author.
+ */
+public record TransitionClause(String documentType, boolean matchesUntyped, List<String> openFrom, List<String> guardedFrom) {
+}
@@ -0,0 +1,71 @@
+package com.docuflow.workflow;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Editable description of a state machine for one document type. Definitions ship on the classpath under
+ * {@code workflows/*.json} and can be overridden or added at runtime in the {@code workflow_definitions}
+ * collection; {@link WorkflowRegistry} compiles them into {@link CompiledWorkflow} lookup tables.
+ */
+@Document("workflow_definitions")
+public class WorkflowDefinition {
+    @Id
+    private String id; // document type
+    private long version;
+    private String initialState;
+    private List<String> states;
+    private List<TransitionDefinition> transitions;
+    private Instant updatedAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public String getInitialState() { return initialState; }
+    public void setInitialState(String initialState) { this.initialState = initialState; }
+    public List<String> getStates() { return states; }
+    public void setStates(List<String> states) { this.states = states; }
+    public List<TransitionDefinition> getTransitions() { return transitions; }
+    public void setTransitions(List<TransitionDefinition> transitions) { this.transitions = transitions; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class TransitionDefinition {
+        private String from;
+        private String to;
+        private List<String> roles;
+        private List<Guard> guards;
+        private List<Effect> effects;
+        private String action;  // audit action, defaults to the upper-cased target state
+        private String message; // notification text for NOTIFY_AUTHOR
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+        public List<String> getRoles() { return roles; }
+        public void setRoles(List<String> roles) { this.roles = roles; }
+        public List<Guard> getGuards() { return guards; }
+        public void setGuards(List<Guard> guards) { this.guards = guards; }
+        public List<Effect> getEffects() { return effects; }
+        public void setEffects(List<Effect> effects) { this.effects = effects; }
+        public String getAction() { return action; }
+        public void setAction(String action) { this.action = action; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public enum Guard {
+        /** The acting user must not be the document's author. */
+        NOT_AUTHOR
+    }
+
+    public enum Effect {
+        /** Notify the document's author once the transition is applied. */
+        NOTIFY_AUTHOR
+    }
+}
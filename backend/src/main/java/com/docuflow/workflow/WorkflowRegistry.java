@@ -0,0 +1,151 @@
+package com.docuflow.workflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Holds the compiled workflows per document type. Built-in definitions come from {@code classpath:workflows/*.json};
+ * documents in {@code workflow_definitions} override them by id and are re-read every
+ * {@code app.workflow.reload-interval-ms}, so workflows change without a redeploy. Readers see one immutable
+ * snapshot swapped in atomically.
+ */
+@Service
+public class WorkflowRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowRegistry.class);
+
+    /** Everything the request path needs, derived once per reload. */
+    private record Snapshot(Map<String, CompiledWorkflow> byType,
+                            Map<String, NavigableMap<String, List<TransitionClause>>> clauses,
+                            Map<String, Long> versions) {}
+
+    private final MongoTemplate mongo;
+    private final ObjectMapper mapper;
+    private final Map<String, WorkflowDefinition> builtIn = new LinkedHashMap<>();
+    private volatile Snapshot snapshot;
+
+    public WorkflowRegistry(MongoTemplate mongo, ObjectMapper mapper) { this.mongo = mongo; this.mapper = mapper; }
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (Resource r : new PathMatchingResourcePatternResolver().getResources("classpath*:workflows/*.json")) {
+            try (InputStream in = r.getInputStream()) {
+                WorkflowDefinition def = mapper.readValue(in, WorkflowDefinition.class);
+                CompiledWorkflow.compile(def);
+                builtIn.put(def.getId(), def);
+            }
+        }
+        if (!builtIn.containsKey(CompiledWorkflow.DEFAULT_TYPE)) {
+            throw new IllegalStateException("classpath:workflows/ must define the '" + CompiledWorkflow.DEFAULT_TYPE + "' workflow");
+        }
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.workflow.reload-interval-ms:30000}", initialDelayString = "${app.workflow.reload-interval-ms:30000}")
+    public void reload() {
+        Map<String, WorkflowDefinition> defs = new LinkedHashMap<>(builtIn);
+        try {
+            for (WorkflowDefinition d : mongo.findAll(WorkflowDefinition.class)) defs.put(d.getId(), d);
+        } catch (RuntimeException e) {
+            log.warn("Could not read workflow definitions from Mongo, keeping current set: {}", e.getMessage());
+            if (snapshot != null) return;
+        }
+        Map<String, Long> versions = new HashMap<>();
+        defs.forEach((id, d) -> versions.put(id, d.getVersion()));
+        Snapshot current = snapshot;
+        if (current != null && current.versions().equals(versions)) return;
+
+        Map<String, CompiledWorkflow> byType = new LinkedHashMap<>();
+        for (WorkflowDefinition d : defs.values()) {
+            try {
+                byType.put(d.getId(), CompiledWorkflow.compile(d));
+            } catch (IllegalArgumentException e) {
+                // a bad edit must not take the type offline; keep serving the last good compilation
+                CompiledWorkflow previous = current == null ? null : current.byType().get(d.getId());
+                log.error("Invalid workflow definition {} v{}: {}", d.getId(), d.getVersion(), e.getMessage());
+                if (previous != null) byType.put(d.getId(), previous);
+                else if (builtIn.containsKey(d.getId())) byType.put(d.getId(), CompiledWorkflow.compile(builtIn.get(d.getId())));
+            }
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(byType), clauses(byType.values()), versions);
+        log.info("Loaded workflows {}", versions);
+    }
+
+    private static Map<String, NavigableMap<String, List<TransitionClause>>> clauses(Collection<CompiledWorkflow> workflows) {
+        Map<String, NavigableMap<String, List<TransitionClause>>> out = new HashMap<>();
+        for (CompiledWorkflow wf : workflows) {
+            boolean untyped = CompiledWorkflow.DEFAULT_TYPE.equals(wf.documentType());
+            for (int to = 0; to < wf.stateCount(); to++) {
+                for (int role = 0; role < wf.roles().size(); role++) {
+                    if (!wf.canEnter(to, role)) continue;
+                    out.computeIfAbsent(wf.stateName(to), k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                            .computeIfAbsent(wf.roles().get(role), k -> new ArrayList<>())
+                            .add(new TransitionClause(wf.documentType(), untyped, wf.openFrom(to, role), wf.guardedFrom(to, role)));
+                }
+            }
+        }
+        out.values().forEach(byRole -> byRole.replaceAll((role, list) -> List.copyOf(list)));
+        return out;
+    }
+
+    /** The workflow for a document type; documents without a type use the default workflow. Null for unknown types. */
+    public CompiledWorkflow find(String documentType) {
+        return snapshot.byType().get(documentType == null ? CompiledWorkflow.DEFAULT_TYPE : documentType);
+    }
+
+    /** Like {@link #find} but falls back to the default workflow, for documents whose type was removed. */
+    public CompiledWorkflow forType(String documentType) {
+        CompiledWorkflow wf = find(documentType);
+        return wf != null ? wf : snapshot.byType().get(CompiledWorkflow.DEFAULT_TYPE);
+    }
+
+    /** True when at least one workflow has edges into the state. */
+    public boolean knowsState(String state) {
+        return state != null && snapshot.clauses().containsKey(state);
+    }
+
+    /** Per-workflow conditions under which the role may move a document into {@code to}; empty when it never may. */
+    public List<TransitionClause> clauses(String to, String role) {
+        if (to == null || role == null) return List.of();
+        NavigableMap<String, List<TransitionClause>> byRole = snapshot.clauses().get(to);
+        List<TransitionClause> c = byRole == null ? null : byRole.get(role);
+        return c == null ? List.of() : c;
+    }
+
+    public List<WorkflowDefinition> definitions() {
+        List<WorkflowDefinition> out = new ArrayList<>();
+        for (CompiledWorkflow wf : snapshot.byType().values()) out.add(wf.definition());
+        return out;
+    }
+
+    /** Validates, stores with the next version and reloads immediately on this node; other nodes pick it up on their next poll. */
+    public WorkflowDefinition save(WorkflowDefinition def) {
+        CompiledWorkflow.compile(def);
+        CompiledWorkflow existing = snapshot.byType().get(def.getId());
+        def.setVersion(existing == null ? 1 : existing.version() + 1);
+        def.setUpdatedAt(Instant.now());
+        WorkflowDefinition saved = mongo.save(def);
+        reload();
+        return saved;
+    }
+}
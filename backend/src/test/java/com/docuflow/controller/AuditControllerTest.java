@@ -0,0 +1,41 @@
+package com.docuflow.controller;
+
+import com.docuflow.repository.AuditSegmentRepository;
+import com.docuflow.repository.DocumentAuditRepository;
+import com.docuflow.security.Role;
+import com.docuflow.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AuditControllerTest {
+
+    private DocumentAuditRepository repo;
+    private AuditSegmentRepository archive;
+    private AuditController controller;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(DocumentAuditRepository.class);
+        archive = mock(AuditSegmentRepository.class);
+        controller = new AuditController(repo, archive);
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        var res = controller.listForDocument("65f1c0ffee0000000000abcd", null, null, null, "%%%", null);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(repo, archive);
+    }
+
+    @Test
+    void otherUsersTrailNeedsAnApprover() {
+        var res = controller.listForActor("bob", new UserPrincipal("alice", Role.REVIEWER), null, null, null, null, null);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(repo, archive);
+    }
+}
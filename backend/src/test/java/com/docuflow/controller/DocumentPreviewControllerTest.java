@@ -0,0 +1,25 @@
+package com.docuflow.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentPreviewControllerTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @Test
+    void matchesIfNoneMatch() {
+        assertThat(DocumentPreviewController.matches(ETAG, ETAG)).isTrue();
+        assertThat(DocumentPreviewController.matches("W/" + ETAG, ETAG)).isTrue();
+        assertThat(DocumentPreviewController.matches("\"other\", " + ETAG, ETAG)).isTrue();
+        assertThat(DocumentPreviewController.matches("*", ETAG)).isTrue();
+    }
+
+    @Test
+    void doesNotMatchOtherTags() {
+        assertThat(DocumentPreviewController.matches(null, ETAG)).isFalse();
+        assertThat(DocumentPreviewController.matches("\"other\"", ETAG)).isFalse();
+        assertThat(DocumentPreviewController.matches("abc123", ETAG)).isFalse();
+    }
+}
@@ -0,0 +1,50 @@
+package com.docuflow.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentEventCodecTest {
+
+    private static final Instant AT = Instant.parse("2024-03-01T10:15:30.123456789Z");
+
+    @Test
+    void roundTripsEveryField() {
+        DocumentEvent e = new DocumentEvent(DocumentEvent.newId(), DocumentEvent.Type.NOTIFIED, "65f1c0ffee0000000000abcd",
+                "alice", "bob", "invoice", "Under Review", "Approved", "APPROVED", "Approved by älice ✓",
+                "65F1C0FFEE0000000000ABCD", AT);
+        assertThat(DocumentEventCodec.decode(DocumentEventCodec.encode(e))).isEqualTo(e);
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        DocumentEvent e = DocumentEvent.previewed("65f1c0ffee0000000000abcd", "bob", null, "Draft", AT);
+        assertThat(DocumentEventCodec.decode(DocumentEventCodec.encode(e))).isEqualTo(e);
+    }
+
+    @Test
+    void storesObjectIdsInTwelveBytes() {
+        DocumentEvent ids = DocumentEvent.created("65f1c0ffee0000000000abcd", "bob", "invoice", "Draft", AT);
+        DocumentEvent text = DocumentEvent.created("not-an-object-id-at-all!", "bob", "invoice", "Draft", AT);
+        assertThat(DocumentEventCodec.encode(ids).length).isEqualTo(DocumentEventCodec.encode(text).length - 12);
+    }
+
+    @Test
+    void rejectsForeignPayloads() {
+        byte[] encoded = DocumentEventCodec.encode(DocumentEvent.created("65f1c0ffee0000000000abcd", "bob", "invoice", "Draft", AT));
+        byte[][] payloads = {
+                "{\"type\":\"CREATED\",\"documentId\":\"65f1c0ffee0000000000abcd\"}".getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOf(encoded, encoded.length + 1),
+                Arrays.copyOf(encoded, encoded.length - 1),
+                new byte[0],
+        };
+        for (byte[] p : payloads) {
+            assertThatThrownBy(() -> DocumentEventCodec.decode(p)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.docuflow.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final Instant AT = Instant.parse("2024-03-01T10:15:30.123Z");
+    private static final String ID = "65f1c0ffee0000000000abcd";
+
+    @Test
+    void roundTrips() {
+        KeysetCursor c = KeysetCursor.decode(new KeysetCursor(AT, ID).encode());
+        assertThat(c.getAt()).isEqualTo(AT);
+        assertThat(c.getId()).isEqualTo(ID);
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String token : new String[] {"not base64!", encoded("no-separator"), encoded(":" + ID), encoded("123:"),
+                encoded("soon:" + ID), encoded("-" + ":" + ID)}) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token)).as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Malformed cursor");
+        }
+    }
+
+    @Test
+    void admitsOnlyRowsStrictlyOlder() {
+        KeysetCursor c = new KeysetCursor(AT, ID);
+        assertThat(c.admits(AT.minusMillis(1), "ffffffffffffffffffffffff")).isTrue();
+        assertThat(c.admits(AT, "65f1c0ffee0000000000abcc")).isTrue();
+        assertThat(c.admits(AT, ID)).isFalse();
+        assertThat(c.admits(AT, "65f1c0ffee0000000000abce")).isFalse();
+        assertThat(c.admits(AT.plusMillis(1), "000000000000000000000000")).isFalse();
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.docuflow.retention;
+
+import com.docuflow.model.DocumentAudit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditSegmentCodecTest {
+
+    @Test
+    void roundTripsASegment() {
+        Instant start = Instant.parse("2023-01-01T00:00:00Z");
+        List<DocumentAudit> audits = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            audits.add(audit(String.format("65f1c0ffee00000000%06x", i), "65f1c0ffee0000000000%04x".formatted(i % 7),
+                    "user" + (i % 3), i % 2 == 0 ? "EDITED" : "APPROVED", start.plusMillis(i * 1500L), i % 5 == 0 ? null : "v" + i));
+        }
+        // out-of-order timestamps and non-ObjectId ids still round-trip
+        audits.add(audit("legacy-1", "doc-ü", "ålice", "CREATED", start.minusSeconds(60), ""));
+
+        byte[] data = AuditSegmentCodec.encode(audits);
+        assertThat(AuditSegmentCodec.decode(data)).usingRecursiveFieldByFieldElementComparator().isEqualTo(audits);
+        assertThat(data.length).isLessThan(audits.size() * 16);
+    }
+
+    @Test
+    void roundTripsAnEmptySegment() {
+        assertThat(AuditSegmentCodec.decode(AuditSegmentCodec.encode(List.of()))).isEmpty();
+    }
+
+    @Test
+    void rejectsCorruptData() {
+        byte[] data = AuditSegmentCodec.encode(List.of(audit("65f1c0ffee0000000000abcd", "d", "alice", "EDITED", Instant.EPOCH, null)));
+        byte[] wrongVersion = data.clone();
+        wrongVersion[0]++;
+        for (byte[] d : new byte[][] {new byte[0], wrongVersion, Arrays.copyOf(data, data.length / 2)}) {
+            assertThatThrownBy(() -> AuditSegmentCodec.decode(d)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static DocumentAudit audit(String id, String documentId, String actor, String action, Instant at, String details) {
+        DocumentAudit a = new DocumentAudit();
+        a.setId(id);
+        a.setDocumentId(documentId);
+        a.setActor(actor);
+        a.setAction(action);
+        a.setAt(at);
+        a.setDetails(details);
+        return a;
+    }
+}
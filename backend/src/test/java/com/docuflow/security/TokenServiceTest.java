@@ -0,0 +1,76 @@
+package com.docuflow.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenServiceTest {
+
+    private static final UserPrincipal ALICE = new UserPrincipal("alice", Role.APPROVER);
+
+    @Test
+    void authenticatesAnIssuedToken() {
+        TokenService tokens = service(secret(1), Duration.ofHours(1));
+        TokenService.Issued issued = tokens.issue(ALICE);
+
+        TokenAuthentication auth = tokens.authenticate(issued.token());
+        assertThat(auth).isNotNull();
+        assertThat(auth.getPrincipal()).isEqualTo(ALICE);
+        assertThat(auth.isAuthenticated()).isTrue();
+        assertThat(auth.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_APPROVER");
+        assertThat(auth.getExpiresAt()).isEqualTo(issued.expiresAt());
+        // served from the cache the second time
+        assertThat(tokens.authenticate(issued.token())).isSameAs(auth);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        TokenService tokens = service(secret(1), Duration.ofHours(1));
+        String token = tokens.issue(ALICE).token();
+        int dot = token.indexOf('.');
+        String forged = token.substring(0, dot + 1)
+                + Base64.getUrlEncoder().withoutPadding().encodeToString("{\"sub\":\"mallory\",\"role\":\"Approver\",\"exp\":9999999999}".getBytes())
+                + token.substring(token.lastIndexOf('.'));
+
+        assertThat(tokens.authenticate(forged)).isNull();
+        assertThat(tokens.authenticate(token.substring(0, token.length() - 2))).isNull();
+        assertThat(tokens.authenticate("not.a.token")).isNull();
+        assertThat(tokens.authenticate("")).isNull();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String token = service(secret(1), Duration.ofHours(1)).issue(ALICE).token();
+        assertThat(service(secret(2), Duration.ofHours(1)).authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsExpiredTokens() throws InterruptedException {
+        TokenService tokens = service(secret(1), Duration.ofMillis(1));
+        String token = tokens.issue(ALICE).token();
+        Thread.sleep(10);
+        assertThat(tokens.authenticate(token)).isNull();
+    }
+
+    @Test
+    void rejectsShortSecrets() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[TokenService.MIN_KEY_BYTES - 1]);
+        assertThatThrownBy(() -> service(shortSecret, Duration.ofHours(1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TokenService service(String secret, Duration ttl) {
+        return new TokenService(secret, ttl, 100, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static String secret(int seed) {
+        byte[] raw = new byte[TokenService.MIN_KEY_BYTES];
+        raw[0] = (byte) seed;
+        return Base64.getEncoder().encodeToString(raw);
+    }
+}
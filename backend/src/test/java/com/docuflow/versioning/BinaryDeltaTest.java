@@ -0,0 +1,53 @@
+package com.docuflow.versioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryDeltaTest {
+
+    @Test
+    void roundTripsAnEditedText() {
+        byte[] source = "The quick brown fox jumps over the lazy dog.\n".repeat(40).getBytes(StandardCharsets.UTF_8);
+        byte[] target = ("Preface.\n" + new String(source, StandardCharsets.UTF_8).replace("lazy", "sleepy") + "The end.\n")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] delta = BinaryDelta.encode(source, target);
+        assertThat(BinaryDelta.apply(source, delta)).isEqualTo(target);
+        assertThat(delta.length).isLessThan(target.length / 2);
+    }
+
+    @Test
+    void roundTripsEdgeCases() {
+        byte[] random = new byte[5000];
+        new Random(42).nextBytes(random);
+        byte[][][] pairs = {
+                {new byte[0], new byte[0]},
+                {new byte[0], random},
+                {random, new byte[0]},
+                {random, random},
+                {"short".getBytes(StandardCharsets.UTF_8), "shorter".getBytes(StandardCharsets.UTF_8)},
+                {random, reversed(random)},
+        };
+        for (byte[][] p : pairs) {
+            assertThat(BinaryDelta.apply(p[0], BinaryDelta.encode(p[0], p[1]))).isEqualTo(p[1]);
+        }
+    }
+
+    @Test
+    void rejectsADeltaForAnotherSource() {
+        byte[] source = "version one of the document, long enough to copy".getBytes(StandardCharsets.UTF_8);
+        byte[] delta = BinaryDelta.encode(source, "version two of the document, long enough to copy".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> BinaryDelta.apply("something else".getBytes(StandardCharsets.UTF_8), delta))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] reversed(byte[] b) {
+        byte[] r = new byte[b.length];
+        for (int i = 0; i < b.length; i++) r[i] = b[b.length - 1 - i];
+        return r;
+    }
+}
@@ -0,0 +1,72 @@
+package com.docuflow.versioning;
+
+import com.docuflow.versioning.LineDiff.Change;
+import com.docuflow.versioning.LineDiff.Op;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineDiffTest {
+
+    @Test
+    void reportsAReplacedLine() {
+        List<Change> changes = LineDiff.diff("a\nb\nc", "a\nx\nc");
+        assertThat(changes).containsExactly(
+                new Change(Op.EQUAL, 1, 1, 1, null),
+                new Change(Op.DELETE, 2, 2, 1, List.of("b")),
+                new Change(Op.INSERT, 3, 2, 1, List.of("x")),
+                new Change(Op.EQUAL, 3, 3, 1, null));
+    }
+
+    @Test
+    void identicalTextIsOneEqualRun() {
+        assertThat(LineDiff.diff("a\r\nb", "a\nb")).containsExactly(new Change(Op.EQUAL, 1, 1, 2, null));
+        assertThat(LineDiff.diff("", null)).isEmpty();
+    }
+
+    @Test
+    void scriptRebuildsTheNewText() {
+        String[][] pairs = {
+                {"", "one\ntwo"},
+                {"one\ntwo", ""},
+                {"a\nb\nc\nd\ne", "b\nc\nx\ne\nf"},
+                {"x\ny\nx\ny\nx", "y\nx\ny\nx\ny"},
+        };
+        for (String[] p : pairs) {
+            assertThat(apply(p[0], LineDiff.diff(p[0], p[1]))).as(p[0] + " -> " + p[1]).isEqualTo(lines(p[1]));
+        }
+    }
+
+    @Test
+    void fallsBackToOneReplacementPastTheEditLimit() {
+        StringBuilder a = new StringBuilder(), b = new StringBuilder();
+        for (int i = 0; i < LineDiff.MAX_EDITS; i++) {
+            a.append("a").append(i).append('\n');
+            b.append("b").append(i).append('\n');
+        }
+        List<Change> changes = LineDiff.diff("head\n" + a + "tail", "head\n" + b + "tail");
+        assertThat(changes).extracting(Change::op).containsExactly(Op.EQUAL, Op.DELETE, Op.INSERT, Op.EQUAL);
+        assertThat(changes.get(1).count()).isEqualTo(LineDiff.MAX_EDITS);
+        assertThat(apply("head\n" + a + "tail", changes)).isEqualTo(lines("head\n" + b + "tail"));
+    }
+
+    private static List<String> apply(String oldText, List<Change> changes) {
+        List<String> old = lines(oldText);
+        List<String> out = new ArrayList<>();
+        for (Change c : changes) {
+            switch (c.op()) {
+                case EQUAL -> out.addAll(old.subList(c.oldLine() - 1, c.oldLine() - 1 + c.count()));
+                case INSERT -> out.addAll(c.lines());
+                case DELETE -> assertThat(c.lines()).isEqualTo(old.subList(c.oldLine() - 1, c.oldLine() - 1 + c.count()));
+            }
+        }
+        return out;
+    }
+
+    private static List<String> lines(String text) {
+        return text.isEmpty() ? List.of() : List.of(text.split("\r?\n", -1));
+    }
+}
@@ -0,0 +1,102 @@
+package com.docuflow.workflow;
+
+import com.docuflow.workflow.WorkflowDefinition.Effect;
+import com.docuflow.workflow.WorkflowDefinition.Guard;
+import com.docuflow.workflow.WorkflowDefinition.TransitionDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledWorkflowTest {
+
+    @Test
+    void compilesTheDefaultWorkflow() {
+        CompiledWorkflow w = CompiledWorkflow.compile(definition());
+        int draft = w.state("Draft"), submitted = w.state("Submitted"), review = w.state("Under Review");
+        int approved = w.state("Approved");
+        int submitter = w.role("submitter"), approver = w.role("Approver");
+
+        assertThat(w.initialState()).isEqualTo("Draft");
+        assertThat(w.state("Archived")).isEqualTo(-1);
+        assertThat(w.role("Auditor")).isEqualTo(-1);
+        assertThat(w.allows(draft, submitter, submitted)).isTrue();
+        assertThat(w.allows(draft, approver, submitted)).isFalse();
+        assertThat(w.allows(review, approver, approved)).isTrue();
+        assertThat(w.canEnter(approved, approver)).isTrue();
+        assertThat(w.canEnter(approved, submitter)).isFalse();
+    }
+
+    @Test
+    void resolvesGuardsEffectsAndActions() {
+        CompiledWorkflow w = CompiledWorkflow.compile(definition());
+        CompiledWorkflow.Transition submit = w.transition(w.state("Draft"), w.state("Submitted"));
+        CompiledWorkflow.Transition approve = w.transition(w.state("Under Review"), w.state("Approved"));
+
+        assertThat(submit.action()).isEqualTo("SUBMITTED");
+        assertThat(submit.notAuthor()).isFalse();
+        assertThat(approve.notAuthor()).isTrue();
+        assertThat(approve.notifyAuthor()).isTrue();
+        assertThat(approve.message()).isEqualTo("Approved");
+        assertThat(w.transition(w.state("Draft"), w.state("Approved"))).isNull();
+        assertThat(w.guardedFrom(w.state("Approved"), w.role("Approver"))).containsExactly("Under Review");
+        assertThat(w.openFrom(w.state("Submitted"), w.role("Submitter"))).containsExactly("Draft");
+    }
+
+    @Test
+    void finalStatesHaveNoWayOut() {
+        CompiledWorkflow w = CompiledWorkflow.compile(definition());
+        assertThat(w.isFinal(w.state("Approved"))).isTrue();
+        assertThat(w.isFinal(w.state("Rejected"))).isTrue();
+        assertThat(w.isFinal(w.state("Draft"))).isFalse();
+        assertThat(w.isFinal(w.state("Under Review"))).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidDefinitions() {
+        WorkflowDefinition unknownRole = definition();
+        unknownRole.getTransitions().get(0).setRoles(List.of("Auditor"));
+        assertThatThrownBy(() -> CompiledWorkflow.compile(unknownRole)).hasMessageContaining("unknown role Auditor");
+
+        WorkflowDefinition undeclared = definition();
+        undeclared.getTransitions().get(0).setTo("Archived");
+        assertThatThrownBy(() -> CompiledWorkflow.compile(undeclared)).hasMessageContaining("undeclared state");
+
+        WorkflowDefinition duplicate = definition();
+        duplicate.getTransitions().add(transition("Draft", "Submitted", "Approver"));
+        assertThatThrownBy(() -> CompiledWorkflow.compile(duplicate)).hasMessageContaining("duplicate transition");
+
+        WorkflowDefinition badInitial = definition();
+        badInitial.setInitialState("Archived");
+        assertThatThrownBy(() -> CompiledWorkflow.compile(badInitial)).hasMessageContaining("initial state");
+    }
+
+    private static WorkflowDefinition definition() {
+        WorkflowDefinition d = new WorkflowDefinition();
+        d.setId(CompiledWorkflow.DEFAULT_TYPE);
+        d.setInitialState("Draft");
+        d.setStates(List.of("Draft", "Submitted", "Under Review", "Approved", "Rejected"));
+        TransitionDefinition approve = transition("Under Review", "Approved", "Approver");
+        approve.setGuards(List.of(Guard.NOT_AUTHOR));
+        approve.setEffects(List.of(Effect.NOTIFY_AUTHOR));
+        approve.setMessage("Approved");
+        TransitionDefinition reject = transition("Under Review", "Rejected", "Approver");
+        reject.setGuards(List.of(Guard.NOT_AUTHOR));
+        d.setTransitions(new java.util.ArrayList<>(List.of(
+                transition("Draft", "Submitted", "Submitter"),
+                transition("Submitted", "Under Review", "Reviewer", "Approver"),
+                approve,
+                reject)));
+        return d;
+    }
+
+    private static TransitionDefinition transition(String from, String to, String... roles) {
+        TransitionDefinition t = new TransitionDefinition();
+        t.setFrom(from);
+        t.setTo(to);
+        t.setRoles(List.of(roles));
+        return t;
+    }
+}
@@ -0,0 +1,143 @@
+package com.docuflow.bench;
+
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.repository.DocumentAuditRepository;
+import com.docuflow.repository.DocumentRepository;
+import com.docuflow.workflow.TransitionClause;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-in for the Mongo calls made by the benchmarked paths, so runs are offline and reproducible.
+ * Only the repository methods those paths use are implemented; anything else throws.
+ */
+public final class InMemoryMongo {
+
+    private final Map<String, DocumentMetadata> documents = new ConcurrentHashMap<>();
+    private final AtomicLong auditsWritten = new AtomicLong();
+
+    public void put(DocumentMetadata d) { documents.put(d.getId(), d); }
+    public long auditsWritten() { return auditsWritten.get(); }
+
+    public DocumentRepository documents() {
+        return proxy(DocumentRepository.class, (name, a) -> switch (name) {
+            case "findById" -> Optional.ofNullable(documents.get((String) a[0]));
+            case "save", "insert" -> {
+                put((DocumentMetadata) a[0]);
+                yield a[0];
+            }
+            case "transition" -> transition((String) a[0], cast(a[1]), (String) a[2], (String) a[3], (Instant) a[4]);
+            case "findStates" -> findStates(cast(a[0]));
+            case "transitionAll" -> transitionAll(cast(a[0]), cast(a[1]), (String) a[2], (String) a[3], (Instant) a[4]);
+            default -> throw new UnsupportedOperationException("DocumentRepository." + name);
+        });
+    }
+
+    public DocumentAuditRepository audits() {
+        return proxy(DocumentAuditRepository.class, (name, a) -> switch (name) {
+            case "insert", "insertAll", "saveAll" -> count(a[0], auditsWritten);
+            default -> throw new UnsupportedOperationException("DocumentAuditRepository." + name);
+        });
+    }
+
+    /** A template that never talks to a server; {@code findAll} sees an empty database. */
+    public MongoTemplate template() {
+        MongoDatabaseFactory factory = proxy(MongoDatabaseFactory.class, (name, a) -> {
+            if ("getExceptionTranslator".equals(name)) return new MongoExceptionTranslator();
+            throw new UnsupportedOperationException("MongoDatabaseFactory." + name);
+        });
+        return new MongoTemplate(factory) {
+            @Override
+            public <T> List<T> findAll(Class<T> entityClass) { return List.of(); }
+        };
+    }
+
+    private DocumentMetadata transition(String id, List<TransitionClause> clauses, String actor, String to, Instant at) {
+        DocumentMetadata d = documents.get(id);
+        if (d == null) return null;
+        synchronized (d) {
+            for (TransitionClause c : clauses) {
+                boolean typeMatches = c.documentType().equals(d.getDocumentType()) || (c.matchesUntyped() && d.getDocumentType() == null);
+                if (!typeMatches) continue;
+                String cur = d.getWorkflowState();
+                if (c.openFrom().contains(cur) || (c.guardedFrom().contains(cur) && !actor.equals(d.getAuthor()))) {
+                    DocumentMetadata before = stateOf(d);
+                    d.setWorkflowState(to);
+                    d.setUpdatedAt(at);
+                    return before;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<DocumentMetadata> findStates(Collection<String> ids) {
+        List<DocumentMetadata> out = new ArrayList<>();
+        for (String id : ids) {
+            DocumentMetadata d = documents.get(id);
+            if (d != null) out.add(stateOf(d));
+        }
+        return out;
+    }
+
+    private Set<String> transitionAll(Map<String, String> expectedFrom, Set<String> guarded, String actor, String to, Instant at) {
+        Set<String> applied = new HashSet<>();
+        expectedFrom.forEach((id, from) -> {
+            DocumentMetadata d = documents.get(id);
+            if (d == null) return;
+            synchronized (d) {
+                if (!from.equals(d.getWorkflowState()) || (guarded.contains(id) && actor.equals(d.getAuthor()))) return;
+                d.setWorkflowState(to);
+                d.setUpdatedAt(at);
+                applied.add(id);
+            }
+        });
+        return applied;
+    }
+
+    private static DocumentMetadata stateOf(DocumentMetadata d) {
+        DocumentMetadata p = new DocumentMetadata();
+        p.setId(d.getId());
+        p.setWorkflowState(d.getWorkflowState());
+        p.setAuthor(d.getAuthor());
+        p.setDocumentType(d.getDocumentType());
+        return p;
+    }
+
+    private static Object count(Object entities, AtomicLong counter) {
+        List<Object> out = new ArrayList<>();
+        for (Object o : (Iterable<?>) entities) out.add(o);
+        counter.addAndGet(out.size());
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) { return (T) o; }
+
+    private interface Call {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Call call) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, m, a) -> switch (m.getName()) {
+            case "toString" -> "InMemory" + type.getSimpleName();
+            case "hashCode" -> System.identityHashCode(self);
+            case "equals" -> self == a[0];
+            default -> call.invoke(m.getName(), a == null ? new Object[0] : a);
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.docuflow.bench;
+
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.model.DocumentSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson cost of a document list response: full DocumentMetadata with its preview content against DocumentSummary. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int count;
+
+    private ObjectMapper mapper;
+    private List<DocumentMetadata> full;
+    private List<DocumentSummary> summaries;
+
+    @Setup
+    public void setup() {
+        // same settings as the application: ISO-8601 dates
+        mapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        Random random = new Random(42);
+        byte[] head = new byte[16 * 1024];
+        full = new ArrayList<>(count);
+        summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(head);
+            DocumentMetadata d = new DocumentMetadata();
+            d.setId(String.format("%024x", i));
+            d.setTitle("Quarterly report " + i);
+            d.setAuthor("user" + (i % 50));
+            d.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_000L + i));
+            d.setUpdatedAt(d.getCreatedAt());
+            d.setWorkflowState("Submitted");
+            d.setTags(List.of("finance", "q" + (i % 4 + 1)));
+            d.setFileName("report-" + i + ".pdf");
+            d.setContentType("application/pdf");
+            d.setFileSize(2_000_000);
+            d.setContent("file:report-" + i + ".pdf;type:application/pdf;data:" + Base64.getEncoder().encodeToString(head));
+            full.add(d);
+
+            DocumentSummary s = new DocumentSummary();
+            s.setId(d.getId());
+            s.setTitle(d.getTitle());
+            s.setAuthor(d.getAuthor());
+            s.setCreatedAt(d.getCreatedAt());
+            s.setUpdatedAt(d.getUpdatedAt());
+            s.setWorkflowState(d.getWorkflowState());
+            s.setTags(d.getTags());
+            s.setFileName(d.getFileName());
+            s.setContentType(d.getContentType());
+            s.setFileSize(d.getFileSize());
+            summaries.add(s);
+        }
+    }
+
+    @Benchmark
+    public byte[] fullMetadata() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(full);
+    }
+
+    @Benchmark
+    public byte[] summaryProjection() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,107 @@
+package com.docuflow.bench;
+
+import com.docuflow.events.DocEventBus;
+import com.docuflow.events.DocumentEvent;
+import com.docuflow.model.DocumentMetadata;
+import com.docuflow.service.AuditService;
+import com.docuflow.service.WorkflowService;
+import com.docuflow.workflow.CompiledWorkflow;
+import com.docuflow.workflow.WorkflowRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transition validation on the workflow path: the compiled lookup tables against the original array scan and
+ * string role checks, plus a full WorkflowService.transition over the in-memory store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WorkflowBenchmark {
+
+    private static final int DOCS = 1024;
+
+    // the rules as WorkflowController had them before the engine
+    private static final Map<String, String[]> legacyTransitions = Map.of(
+            "Draft", new String[]{"Submitted"},
+            "Submitted", new String[]{"Under Review"},
+            "Under Review", new String[]{"Approved","Rejected"},
+            "Approved", new String[]{},
+            "Rejected", new String[]{}
+    );
+
+    private CompiledWorkflow workflow;
+    private WorkflowService service;
+    private final String[] ids = new String[DOCS];
+    private final boolean[] inB = new boolean[DOCS];
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        InMemoryMongo store = new InMemoryMongo();
+        WorkflowRegistry registry = new WorkflowRegistry(store.template(), Jackson2ObjectMapperBuilder.json().build());
+        registry.init();
+        workflow = registry.forType(CompiledWorkflow.DEFAULT_TYPE);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        // init() is never called: audits are written inline on the benchmark thread and events are discarded
+        AuditService audits = new AuditService(store.audits(), new DiscardingBus(), meters);
+        service = new WorkflowService(store.documents(), audits, registry, meters);
+        for (int i = 0; i < DOCS; i++) {
+            DocumentMetadata d = new DocumentMetadata();
+            d.setId("doc-" + i);
+            d.setAuthor("alice");
+            d.setDocumentType("bench");
+            d.setWorkflowState("A");
+            d.setUpdatedAt(Instant.now());
+            store.put(d);
+            ids[i] = d.getId();
+        }
+    }
+
+    private static final class DiscardingBus implements DocEventBus {
+        @Override public void publish(List<DocumentEvent> events) {}
+        @Override public void subscribe(String subscription, Delivery delivery, Handler handler) {}
+    }
+
+    @Benchmark
+    public boolean compiledCheck() {
+        int from = workflow.state("Submitted");
+        int role = workflow.role("REVIEWER");
+        int to = workflow.state("Under Review");
+        return from >= 0 && role >= 0 && to >= 0 && workflow.allows(from, role, to) && workflow.transition(from, to).notAuthor();
+    }
+
+    @Benchmark
+    public boolean legacyCheck() {
+        String cur = "Submitted";
+        String state = "Under Review";
+        String role = "Reviewer";
+        String[] allowed = legacyTransitions.getOrDefault(cur, new String[]{});
+        boolean ok = false;
+        for (String a : allowed) if (a.equals(state)) { ok = true; break; }
+        if (!ok) return false;
+        if ("Submitted".equals(state) && !"Submitter".equals(role)) return false;
+        if ("Under Review".equals(state) && !("Reviewer".equals(role) || "Approver".equals(role))) return false;
+        if (("Approved".equals(state) || "Rejected".equals(state)) && !"Approver".equals(role)) return false;
+        return "Under Review".equals(state) || "Approved".equals(state) || "Rejected".equals(state);
+    }
+
+    /** Every call is an applied transition: documents of the "bench" workflow flip between A and B. */
+    @Benchmark
+    public WorkflowService.Result serviceTransition() {
+        int i = next++ & (DOCS - 1);
+        String to = inB[i] ? "A" : "B";
+        inB[i] = !inB[i];
+        return service.transition(ids[i], to, "Reviewer", "bob");
+    }
+}
@@ -0,0 +1,58 @@
+package com.docuflow.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of the doc-events wire format in both directions, against Jackson JSON of the same record
+ * (the previous format). The transition used here is 84 bytes in the binary format and 280 bytes as JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DocumentEventCodecBenchmark {
+
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private DocumentEvent event;
+    private byte[] binary;
+    private byte[] text;
+
+    @Setup
+    public void setup() throws IOException {
+        event = DocumentEvent.transitioned("65f1c0ffee0000000000abcd", "bob", "alice", null, "Under Review", "Approved", "APPROVED", Instant.now());
+        binary = DocumentEventCodec.encode(event);
+        text = json.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return DocumentEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public DocumentEvent binaryDecode() {
+        return DocumentEventCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return json.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public DocumentEvent jsonDecode() throws IOException {
+        return json.readValue(text, DocumentEvent.class);
+    }
+}
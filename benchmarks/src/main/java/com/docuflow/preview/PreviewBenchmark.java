@@ -0,0 +1,84 @@
+package com.docuflow.preview;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preview costs. The upload path used to read the first 16 KB of every file and Base64 it into the document;
+ * now it reads nothing and the preview workers pay for a first-page text extract or a subsampled thumbnail.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PreviewBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Files {
+        byte[] binary;
+        byte[] text;
+
+        @Setup
+        public void setup() {
+            binary = new byte[1024 * 1024];
+            new Random(7).nextBytes(binary);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() < 64 * 1024; i++) sb.append("Line ").append(i).append(": quarterly figures, restated.\n");
+            text = sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Images {
+        @Param({"1024", "4000"})
+        int width;
+
+        byte[] jpeg;
+
+        @Setup
+        public void setup() throws IOException {
+            int height = width * 3 / 4;
+            BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            g.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, Color.ORANGE));
+            g.fillRect(0, 0, width, height);
+            g.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(img, "jpeg", out);
+            jpeg = out.toByteArray();
+        }
+    }
+
+    // what uploadDocument stored in content before previews, on every file upload
+    @Benchmark
+    public String legacyInlineHead(Files f) throws IOException {
+        try (InputStream in = new ByteArrayInputStream(f.binary)) {
+            return "file:scan.pdf;type:application/pdf;data:" + Base64.getEncoder().encodeToString(in.readNBytes(16 * 1024));
+        }
+    }
+
+    @Benchmark
+    public PreviewGenerator.Preview textPreview(Files f) throws IOException {
+        return PreviewGenerator.generate(new ByteArrayInputStream(f.text), "text/plain", "report.txt");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PreviewGenerator.Preview imageThumbnail(Images i) throws IOException {
+        return PreviewGenerator.generate(new ByteArrayInputStream(i.jpeg), "image/jpeg", "photo.jpg");
+    }
+}
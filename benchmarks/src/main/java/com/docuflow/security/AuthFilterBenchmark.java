@@ -0,0 +1,112 @@
+package com.docuflow.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost: a cached bearer token through TokenAuthFilter, a token verified from scratch
+ * (HMAC and claims parse, what a cache miss pays), the header filter it replaced, and one BCrypt check, which is
+ * what HTTP Basic against hashed passwords paid on every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AuthFilterBenchmark {
+
+    private static final FilterChain NOOP = (req, res) -> {};
+
+    private TokenService tokens;
+    private TokenAuthFilter filter;
+    private String token;
+    private HttpServletRequest bearerRequest;
+    private HttpServletRequest headerRequest;
+    private HttpServletResponse response;
+    private BCryptPasswordEncoder bcrypt;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        byte[] key = new byte[TokenService.MIN_KEY_BYTES];
+        for (int i = 0; i < key.length; i++) key[i] = (byte) i;
+        tokens = new TokenService(Base64.getEncoder().encodeToString(key), Duration.ofHours(8), 10_000,
+                new ObjectMapper(), new SimpleMeterRegistry());
+        filter = new TokenAuthFilter(tokens);
+        token = tokens.issue(new UserPrincipal("bob.reviewer", Role.REVIEWER)).token();
+        bearerRequest = request("Authorization", "Bearer " + token);
+        headerRequest = request("X-USER", "bob.reviewer", "X-ROLE", "Reviewer");
+        response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (p, m, a) -> defaultValue(m.getReturnType()));
+        bcrypt = new BCryptPasswordEncoder();
+        hash = bcrypt.encode("correct horse battery staple");
+    }
+
+    /** Just enough of a request for the filters: fixed headers, no attributes, a plain REQUEST dispatch. */
+    private static HttpServletRequest request(String... headers) {
+        return (HttpServletRequest) Proxy.newProxyInstance(AuthFilterBenchmark.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (p, m, a) -> switch (m.getName()) {
+                    case "getHeader" -> {
+                        for (int i = 0; i < headers.length; i += 2) {
+                            if (headers[i].equalsIgnoreCase((String) a[0])) yield headers[i + 1];
+                        }
+                        yield null;
+                    }
+                    case "getRequestURI" -> "/api/documents";
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    default -> defaultValue(m.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+
+    @Benchmark
+    public void cachedToken() throws Exception {
+        filter.doFilter(bearerRequest, response, NOOP);
+    }
+
+    @Benchmark
+    public TokenAuthentication uncachedVerify() {
+        return tokens.verify(token);
+    }
+
+    // the X-USER/X-ROLE filter as SecurityConfig had it
+    @Benchmark
+    public void legacyHeaderFilter() {
+        String user = headerRequest.getHeader("X-USER");
+        String role = headerRequest.getHeader("X-ROLE");
+        if (user != null) {
+            String r = (role == null) ? "Submitter" : role;
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null, List.of(new SimpleGrantedAuthority("ROLE_" + r.toUpperCase())));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean basicAuthPasswordCheck() {
+        return bcrypt.matches("correct horse battery staple", hash);
+    }
+}
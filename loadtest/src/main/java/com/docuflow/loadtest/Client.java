@@ -0,0 +1,151 @@
+package com.docuflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The REST calls the scenario makes. Every call is timed into {@link Stats} under a templated endpoint name. */
+final class Client {
+
+    static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    record Response(int status, byte[] body) {
+        boolean ok() { return status >= 200 && status < 300; }
+    }
+
+    /** A file part for {@link #upload}. */
+    record FilePart(String name, String contentType, byte[] bytes) {}
+
+    private final HttpClient http;
+    private final String api;
+    private final Stats stats;
+    private final ObjectMapper json;
+
+    Client(HttpClient http, String baseUrl, Stats stats, ObjectMapper json) {
+        this.http = http;
+        this.api = baseUrl + "/api";
+        this.stats = stats;
+        this.json = json;
+    }
+
+    /** Token for a demo login, or null; the role follows the username. */
+    String login(String username) throws InterruptedException {
+        byte[] body = write(Map.of("username", username, "password", "loadtest"));
+        Response r = send("POST /auth/token", HttpRequest.newBuilder(URI.create(api + "/auth/token"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+        return r.ok() ? read(r).path("token").asText(null) : null;
+    }
+
+    /** Id of the created document, or null. */
+    String upload(String token, String title, String tag, String content, FilePart file) throws InterruptedException {
+        String boundary = "----docuflow-loadtest-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        field(out, boundary, "title", title);
+        field(out, boundary, "tags", tag);
+        if (file != null) {
+            text(out, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + file.name()
+                    + "\"\r\nContent-Type: " + file.contentType() + "\r\n\r\n");
+            out.writeBytes(file.bytes());
+            text(out, "\r\n");
+        } else {
+            field(out, boundary, "content", content);
+        }
+        text(out, "--" + boundary + "--\r\n");
+        Response r = send("POST /documents", auth(token, "/documents")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(out.toByteArray())));
+        return r.ok() ? read(r).path("id").asText(null) : null;
+    }
+
+    /** Ids of the first page of documents the user can see, optionally in one state. */
+    JsonNode list(String token, String state, int limit) throws InterruptedException {
+        String q = "?limit=" + limit + (state == null ? "" : "&workflowState=" + encode(state));
+        Response r = send("GET /documents", auth(token, "/documents" + q).GET());
+        return r.ok() ? read(r) : null;
+    }
+
+    Response get(String token, String id) throws InterruptedException {
+        return send("GET /documents/{id}", auth(token, "/documents/" + id).GET());
+    }
+
+    Response preview(String token, String id) throws InterruptedException {
+        return send("GET /documents/{id}/preview", auth(token, "/documents/" + id + "/preview").GET());
+    }
+
+    Response search(String token, String q) throws InterruptedException {
+        return send("GET /documents/search", auth(token, "/documents/search?size=20&q=" + encode(q)).GET());
+    }
+
+    Response transition(String token, String id, String state) throws InterruptedException {
+        return send("POST /workflow/{id}/state", auth(token, "/workflow/" + id + "/state?state=" + encode(state))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    Response notifications(String token, String username) throws InterruptedException {
+        return send("GET /notifications/user/{u}", auth(token, "/notifications/user/" + encode(username) + "?unread=true&limit=20").GET());
+    }
+
+    Response unreadCount(String token, String username) throws InterruptedException {
+        return send("GET /notifications/user/{u}/unread-count", auth(token, "/notifications/user/" + encode(username) + "/unread-count").GET());
+    }
+
+    Response analytics(String token) throws InterruptedException {
+        return send("GET /analytics/summary", auth(token, "/analytics/summary?days=7").GET());
+    }
+
+    private HttpRequest.Builder auth(String token, String path) {
+        return HttpRequest.newBuilder(URI.create(api + path)).header("Authorization", "Bearer " + token);
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> res = http.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(endpoint, res.statusCode(), System.nanoTime() - start);
+            return new Response(res.statusCode(), res.body());
+        } catch (IOException e) {
+            stats.record(endpoint, 0, System.nanoTime() - start);
+            return new Response(0, new byte[0]);
+        }
+    }
+
+    private JsonNode read(Response r) {
+        try {
+            return json.readTree(r.body());
+        } catch (IOException e) {
+            return json.missingNode();
+        }
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return json.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void field(ByteArrayOutputStream out, String boundary, String name, String value) {
+        text(out, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void text(ByteArrayOutputStream out, String s) {
+        out.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
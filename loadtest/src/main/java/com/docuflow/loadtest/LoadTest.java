@@ -0,0 +1,151 @@
+package com.docuflow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives the REST API with simulated Submitters, Reviewers and Approvers against a backend started on an
+ * embedded MongoDB with the in-memory event bus, then reports throughput, latency percentiles per endpoint and
+ * server heap/GC. See {@link Options} for the settings.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Files.createDirectories(options.reportDir());
+        ObjectMapper json = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+
+        List<String> profiles = options.compareVirtual() ? List.of("", "virtual") : List.of(options.profile());
+        List<Report.Run> runs = new ArrayList<>();
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        try {
+            String mongo = options.mongoUri();
+            if (mongo == null && options.baseUrl() == null) {
+                mongod = Mongod.instance().start(Version.Main.valueOf("V" + options.mongoVersion().replace('.', '_')));
+                mongo = "mongodb://" + mongod.current().getServerAddress();
+            }
+            for (String profile : profiles) {
+                Report.Run run = run(options.withProfile(profile), mongo, json);
+                Report.print(run, System.out);
+                System.out.println("report: " + Report.write(run, options.reportDir(), "report-" + run.label() + ".json", json));
+                runs.add(run);
+            }
+            if (runs.size() > 1) Report.compare(runs, System.out);
+        } finally {
+            if (mongod != null) mongod.close();
+        }
+    }
+
+    private static Report.Run run(Options options, String mongo, ObjectMapper json) throws IOException, InterruptedException {
+        String label = options.profile().isEmpty() ? "default" : options.profile();
+        ServerProcess server = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            // a fresh database per run so earlier runs' documents don't skew list and search
+            String uri = mongo + "/docuflow_lt_" + label + "_" + Instant.now().getEpochSecond();
+            System.out.println("starting server (" + label + ") on " + uri);
+            server = ServerProcess.start(options, uri, options.profile(), options.reportDir().resolve("server-" + label + ".log"));
+            baseUrl = server.baseUrl();
+        }
+        try {
+            return drive(options, label, baseUrl, json);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static Report.Run drive(Options options, String label, String baseUrl, ObjectMapper json) throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Stats stats = new Stats();
+        Client client = new Client(http, baseUrl, stats, json);
+        VirtualUser.Shared shared = new VirtualUser.Shared(textFile(options.seed()), image(options.seed()));
+
+        List<Thread> threads = new ArrayList<>(options.users());
+        long step = options.users() == 0 ? 0 : options.ramp().toNanos() / options.users();
+        long begin = System.nanoTime();
+        System.out.printf("ramping %d users over %s, warming up for %s%n", options.users(), options.ramp(), options.warmup());
+        for (int i = 0; i < options.users(); i++) {
+            long wait = begin + i * step - System.nanoTime();
+            if (wait > 0) Thread.sleep(Duration.ofNanos(wait));
+            VirtualUser user = VirtualUser.create(i, client, shared, options.thinkMs(), options.seed());
+            threads.add(Thread.ofVirtual().name("vu-" + i).start(user));
+        }
+        long warmupLeft = begin + options.warmup().toNanos() - System.nanoTime();
+        if (warmupLeft > 0) Thread.sleep(Duration.ofNanos(warmupLeft));
+
+        // demo-login makes this an Approver, which actuator metrics require
+        String metricsToken = client.login("lt-approver-metrics");
+        ServerMetrics metrics = metricsToken == null ? null : new ServerMetrics(http, baseUrl, metricsToken, json);
+        if (metrics == null) System.out.println("no Approver token for actuator metrics, server heap/GC will be missing");
+        Report.ClientJvm clientBefore = Report.ClientJvm.snapshot();
+        Instant startedAt = Instant.now();
+        System.out.printf("measuring for %s%n", options.duration());
+        if (metrics != null) metrics.markStart();
+        stats.start();
+        Thread.sleep(options.duration());
+        stats.stop();
+        if (metrics != null) metrics.markEnd();
+        Report.ClientJvm clientJvm = Report.ClientJvm.snapshot().since(clientBefore);
+
+        shared.stop();
+        for (Thread t : threads) t.interrupt();
+        for (Thread t : threads) t.join(Client.TIMEOUT.toMillis());
+
+        return new Report.Run(label, startedAt, options.users(), options.thinkMs(), options.duration(),
+                stats.summary(), metrics == null ? null : metrics.summary(), clientJvm);
+    }
+
+    /** About 20 KB of text, so uploads store a file and go through text preview generation. */
+    private static Client.FilePart textFile(long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(24 * 1024);
+        for (int line = 0; sb.length() < 20 * 1024; line++) {
+            sb.append(line).append(". ").append(VirtualUser.SEARCH_TERMS[random.nextInt(VirtualUser.SEARCH_TERMS.length)])
+                    .append(" clause for ").append(VirtualUser.TAGS[random.nextInt(VirtualUser.TAGS.length)]).append(" review\n");
+        }
+        return new Client.FilePart("notes.txt", "text/plain", sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** A noisy 1200x900 PNG, large enough that thumbnailing does real work. */
+    private static Client.FilePart image(long seed) throws IOException {
+        Random random = new Random(seed);
+        BufferedImage img = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        for (int i = 0; i < 400; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillRect(random.nextInt(1200), random.nextInt(900), 20 + random.nextInt(200), 20 + random.nextInt(200));
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return new Client.FilePart("scan.png", "image/png", out.toByteArray());
+    }
+}
@@ -0,0 +1,64 @@
+package com.docuflow.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line settings, given as {@code key=value} (a leading {@code --} is accepted too).
+ *
+ * @param users          concurrent simulated users
+ * @param warmup         load before measuring starts, so JIT, pools and caches settle
+ * @param duration       measured period
+ * @param ramp           users are started evenly over this period
+ * @param thinkMs        mean pause between a user's requests; each pause is drawn from 0.5x to 1.5x of it
+ * @param profile        Spring profile for the server, e.g. {@code virtual}; empty for the default
+ * @param compareVirtual run twice, default then {@code virtual}, against fresh databases, and compare
+ * @param baseUrl        drive an already running server instead of starting one (server heap/GC only if it has demo-login on)
+ * @param mongoUri       use this MongoDB instead of starting an embedded one
+ * @param mongoVersion   embedded MongoDB version
+ * @param serverHeap     -Xmx of the server JVM
+ * @param serverJvmArgs  extra server JVM flags, space separated, e.g. {@code -XX:+UseZGC}
+ * @param reportDir      where JSON reports and server logs go
+ * @param seed           makes the request mix repeatable
+ */
+public record Options(int users, Duration warmup, Duration duration, Duration ramp, long thinkMs, String profile,
+                      boolean compareVirtual, String baseUrl, String mongoUri, String mongoVersion, String serverHeap,
+                      String serverJvmArgs, Path reportDir, long seed) {
+
+    private static final Set<String> KEYS = Set.of("users", "warmup", "duration", "ramp", "think-ms", "profile", "compare-virtual",
+            "base-url", "mongo-uri", "mongo-version", "server-heap", "server-jvm-args", "report-dir", "seed");
+
+    public static Options parse(String[] args) {
+        Map<String, String> m = new HashMap<>();
+        for (String a : args) {
+            String s = a.startsWith("--") ? a.substring(2) : a;
+            int eq = s.indexOf('=');
+            String key = eq < 0 ? s : s.substring(0, eq);
+            if (!KEYS.contains(key)) throw new IllegalArgumentException("unknown option " + a + ", expected one of " + KEYS);
+            m.put(key, eq < 0 ? "true" : s.substring(eq + 1));
+        }
+        return new Options(
+                Integer.parseInt(m.getOrDefault("users", "1000")),
+                Duration.parse(m.getOrDefault("warmup", "PT30S")),
+                Duration.parse(m.getOrDefault("duration", "PT2M")),
+                Duration.parse(m.getOrDefault("ramp", "PT20S")),
+                Long.parseLong(m.getOrDefault("think-ms", "1000")),
+                m.getOrDefault("profile", ""),
+                Boolean.parseBoolean(m.getOrDefault("compare-virtual", "false")),
+                m.get("base-url"),
+                m.get("mongo-uri"),
+                m.getOrDefault("mongo-version", "7.0"),
+                m.getOrDefault("server-heap", "1g"),
+                m.getOrDefault("server-jvm-args", ""),
+                Path.of(m.getOrDefault("report-dir", "target/loadtest")),
+                Long.parseLong(m.getOrDefault("seed", "42")));
+    }
+
+    public Options withProfile(String p) {
+        return new Options(users, warmup, duration, ramp, thinkMs, p, compareVirtual, baseUrl, mongoUri, mongoVersion,
+                serverHeap, serverJvmArgs, reportDir, seed);
+    }
+}
@@ -0,0 +1,91 @@
+package com.docuflow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/** One run's results, printed as a table and written as JSON. */
+final class Report {
+
+    /** The load generator's own GC, to check it was not the bottleneck. */
+    public record ClientJvm(long gcCount, long gcTimeMs, double heapUsedMb, int availableProcessors) {
+
+        static ClientJvm snapshot() {
+            long count = 0, time = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                time += Math.max(0, gc.getCollectionTime());
+            }
+            return new ClientJvm(count, time, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / ServerMetrics.MB,
+                    Runtime.getRuntime().availableProcessors());
+        }
+
+        ClientJvm since(ClientJvm before) {
+            return new ClientJvm(gcCount - before.gcCount, gcTimeMs - before.gcTimeMs, heapUsedMb, availableProcessors);
+        }
+    }
+
+    public record Run(String label, Instant startedAt, int users, long thinkMs, Duration measured,
+                      Map<String, Stats.EndpointSummary> endpoints, ServerMetrics.Summary server, ClientJvm client) {}
+
+    private Report() {}
+
+    static void print(Run run, PrintStream out) {
+        out.printf("%n=== %s: %d users, think %d ms, measured %s ===%n", run.label(), run.users(), run.thinkMs(), run.measured());
+        out.printf("%-42s %9s %8s %6s %6s %6s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "fail", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        run.endpoints().forEach((name, s) -> out.printf("%-42s %9d %8.1f %6d %6d %6d %9.1f %9.1f %9.1f %9.1f%n",
+                name, s.requests(), s.throughput(), s.clientErrors(), s.serverErrors(), s.failures(),
+                s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+        ServerMetrics.Summary g = run.server();
+        if (g != null) {
+            out.printf("server heap: max %.0f MB, peak %.0f MB, avg %.0f MB; allocated %.0f MB (%.1f MB/s), promoted %.0f MB%n",
+                    g.heapMaxMb(), g.heapPeakMb(), g.heapAvgMb(), g.allocatedMb(), g.allocationRateMbPerSec(), g.promotedMb());
+            out.printf("server gc: %d pauses, total %.0f ms (%.2f%% of wall time), max %.1f ms; cpu avg %.0f%%, threads peak %.0f%n",
+                    g.gcPauses(), g.gcPauseTotalMs(), g.gcPauseShare() * 100, g.gcPauseMaxMs(), g.cpuAvg() * 100, g.threadsPeak());
+        }
+        ClientJvm c = run.client();
+        out.printf("client gc: %d collections, %d ms on %d cpus%n", c.gcCount(), c.gcTimeMs(), c.availableProcessors());
+    }
+
+    /** Headline numbers of several runs next to each other. */
+    static void compare(List<Run> runs, PrintStream out) {
+        out.printf("%n=== comparison ===%n%-26s", "");
+        for (Run r : runs) out.printf(" %14s", r.label());
+        out.println();
+        row(out, runs, "req/s", r -> r.endpoints().get("ALL").throughput());
+        row(out, runs, "p50 ms", r -> r.endpoints().get("ALL").p50Ms());
+        row(out, runs, "p99 ms", r -> r.endpoints().get("ALL").p99Ms());
+        row(out, runs, "errors", r -> {
+            Stats.EndpointSummary s = r.endpoints().get("ALL");
+            return s.serverErrors() + s.failures();
+        });
+        row(out, runs, "server heap peak MB", r -> r.server() == null ? 0 : r.server().heapPeakMb());
+        row(out, runs, "server alloc MB/s", r -> r.server() == null ? 0 : r.server().allocationRateMbPerSec());
+        row(out, runs, "server gc pause ms", r -> r.server() == null ? 0 : r.server().gcPauseTotalMs());
+        row(out, runs, "server gc max ms", r -> r.server() == null ? 0 : r.server().gcPauseMaxMs());
+        row(out, runs, "server threads peak", r -> r.server() == null ? 0 : r.server().threadsPeak());
+    }
+
+    static Path write(Object report, Path dir, String name, ObjectMapper json) throws IOException {
+        Path file = dir.resolve(name);
+        json.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static void row(PrintStream out, List<Run> runs, String name, ToDoubleFunction<Run> f) {
+        out.printf("%-26s", name);
+        for (Run r : runs) out.printf(" %14.1f", f.applyAsDouble(r));
+        out.println();
+    }
+}
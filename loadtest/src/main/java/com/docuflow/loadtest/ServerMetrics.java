@@ -0,0 +1,135 @@
+package com.docuflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Heap and GC figures for the server, read from its actuator metrics endpoint. Counters are diffed between
+ * {@link #markStart()} and {@link #markEnd()}; gauges are sampled once a second in between. Actuator metrics
+ * need an Approver token.
+ */
+final class ServerMetrics {
+
+    static final Duration INTERVAL = Duration.ofSeconds(1);
+    static final double MB = 1024 * 1024;
+
+    public record Summary(double heapMaxMb, double heapPeakMb, double heapAvgMb, long gcPauses, double gcPauseTotalMs,
+                          double gcPauseMaxMs, double gcPauseShare, double allocatedMb, double allocationRateMbPerSec,
+                          double promotedMb, double cpuAvg, double threadsPeak) {}
+
+    private record Counters(double pauses, double pauseSeconds, double allocated, double promoted) {}
+
+    private final HttpClient http;
+    private final String metricsUrl;
+    private final String token;
+    private final ObjectMapper json;
+    private Counters start;
+    private Counters end;
+    private long startedAt;
+    private long endedAt;
+    private double heapPeak;
+    private double heapSum;
+    private double cpuSum;
+    private double pauseMax;
+    private double threadsPeak;
+    private int samples;
+    private Thread sampler;
+
+    ServerMetrics(HttpClient http, String baseUrl, String token, ObjectMapper json) {
+        this.http = http;
+        this.metricsUrl = baseUrl + "/actuator/metrics/";
+        this.token = token;
+        this.json = json;
+    }
+
+    void markStart() {
+        start = counters();
+        startedAt = System.nanoTime();
+        sampler = Thread.ofPlatform().daemon().name("server-metrics").start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    sample();
+                    Thread.sleep(INTERVAL.toMillis());
+                }
+            } catch (InterruptedException e) {
+                // stopped
+            }
+        });
+    }
+
+    void markEnd() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+        endedAt = System.nanoTime();
+        end = counters();
+        sample();
+    }
+
+    synchronized Summary summary() {
+        double seconds = (endedAt - startedAt) / 1e9;
+        double allocated = (end.allocated() - start.allocated()) / MB;
+        double pauseSeconds = end.pauseSeconds() - start.pauseSeconds();
+        return new Summary(
+                value("jvm.memory.max", "area:heap", "VALUE") / MB,
+                heapPeak / MB,
+                samples == 0 ? 0 : heapSum / samples / MB,
+                Math.round(end.pauses() - start.pauses()),
+                pauseSeconds * 1000,
+                pauseMax * 1000,
+                seconds == 0 ? 0 : pauseSeconds / seconds,
+                allocated,
+                seconds == 0 ? 0 : allocated / seconds,
+                (end.promoted() - start.promoted()) / MB,
+                samples == 0 ? 0 : cpuSum / samples,
+                threadsPeak);
+    }
+
+    private synchronized void sample() {
+        double heap = value("jvm.memory.used", "area:heap", "VALUE");
+        heapPeak = Math.max(heapPeak, heap);
+        heapSum += heap;
+        cpuSum += value("process.cpu.usage", null, "VALUE");
+        // MAX is a decaying window, so keep the largest value seen
+        pauseMax = Math.max(pauseMax, value("jvm.gc.pause", null, "MAX"));
+        threadsPeak = Math.max(threadsPeak, value("jvm.threads.live", null, "VALUE"));
+        samples++;
+    }
+
+    private Counters counters() {
+        return new Counters(
+                value("jvm.gc.pause", null, "COUNT"),
+                value("jvm.gc.pause", null, "TOTAL_TIME"),
+                value("jvm.gc.memory.allocated", null, "COUNT"),
+                value("jvm.gc.memory.promoted", null, "COUNT"));
+    }
+
+    /** 0 when the meter does not exist yet, e.g. jvm.gc.pause before the first collection. */
+    private double value(String metric, String tag, String statistic) {
+        String url = metricsUrl + metric + (tag == null ? "" : "?tag=" + URLEncoder.encode(tag, StandardCharsets.UTF_8));
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            HttpResponse<byte[]> res = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (res.statusCode() != 200) return 0;
+            for (JsonNode m : json.readTree(res.body()).path("measurements")) {
+                if (statistic.equals(m.path("statistic").asText())) return m.path("value").asDouble();
+            }
+        } catch (IOException e) {
+            // server busy or gone; treat as missing
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
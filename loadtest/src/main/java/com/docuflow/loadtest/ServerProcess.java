@@ -0,0 +1,100 @@
+package com.docuflow.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The backend in its own JVM, so the heap and GC numbers in the report are the server's alone and the load
+ * generator's allocations don't pollute them. Pulsar is replaced by the in-memory event bus.
+ */
+final class ServerProcess implements AutoCloseable {
+
+    static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    static final String MAIN_CLASS = "com.docuflow.DocuFlowApplication";
+
+    private final Process process;
+    private final String baseUrl;
+    private final Path log;
+
+    private ServerProcess(Process process, String baseUrl, Path log) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+        this.log = log;
+    }
+
+    static ServerProcess start(Options options, String mongoUri, String profile, Path log) throws IOException, InterruptedException {
+        int port = freePort();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.add("-Xmx" + options.serverHeap());
+        if (!options.serverJvmArgs().isBlank()) cmd.addAll(List.of(options.serverJvmArgs().trim().split("\\s+")));
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(MAIN_CLASS);
+        cmd.add("--server.port=" + port);
+        cmd.add("--spring.data.mongodb.uri=" + mongoUri);
+        cmd.add("--app.events.bus=memory");
+        cmd.add("--app.security.demo-login=true");
+        cmd.add("--app.security.token-secret=" + Base64.getEncoder().encodeToString(secret));
+        if (!profile.isEmpty()) cmd.add("--spring.profiles.active=" + profile);
+
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        ServerProcess server = new ServerProcess(process, "http://localhost:" + port, log);
+        try {
+            server.awaitHealthy();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    String baseUrl() { return baseUrl; }
+
+    private void awaitHealthy() throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("server exited with " + process.exitValue() + " during startup, see " + log);
+            }
+            try {
+                HttpResponse<String> res = http.send(health, HttpResponse.BodyHandlers.ofString());
+                if (res.statusCode() == 200 && res.body().contains("\"UP\"")) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException("server not healthy after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+}
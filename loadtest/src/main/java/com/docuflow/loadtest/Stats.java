@@ -0,0 +1,91 @@
+package com.docuflow.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes per endpoint. Nothing is recorded until {@link #start()}, so warmup traffic does not
+ * count. Latency is measured from just before the request is sent, so a saturated client pool shows up as
+ * latency too rather than as silently reduced load.
+ */
+public final class Stats {
+
+    static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    public record EndpointSummary(long requests, long ok, long clientErrors, long serverErrors, long failures,
+                                  double throughput, double p50Ms, double p90Ms, double p99Ms, double maxMs) {}
+
+    private static final class Endpoint {
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    public void start() {
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+        stoppedAt = System.nanoTime();
+    }
+
+    /** {@code status} is the HTTP status, or 0 when the request failed without a response. */
+    public void record(String endpoint, int status, long nanos) {
+        if (!recording) return;
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.latency.recordValue(Math.min(MAX_MICROS, Math.max(1, nanos / 1000)));
+        if (status == 0) e.failures.increment();
+        else if (status >= 500) e.serverErrors.increment();
+        else if (status >= 400) e.clientErrors.increment();
+        else e.ok.increment();
+    }
+
+    public double seconds() {
+        return (stoppedAt - startedAt) / 1e9;
+    }
+
+    /** Per endpoint by name, plus an "ALL" row over every request. */
+    public Map<String, EndpointSummary> summary() {
+        double secs = seconds();
+        Map<String, EndpointSummary> out = new TreeMap<>();
+        Endpoint all = new Endpoint();
+        for (Map.Entry<String, Endpoint> en : endpoints.entrySet()) {
+            Endpoint e = en.getValue();
+            out.put(en.getKey(), summarize(e, secs));
+            all.latency.add(e.latency);
+            all.ok.add(e.ok.sum());
+            all.clientErrors.add(e.clientErrors.sum());
+            all.serverErrors.add(e.serverErrors.sum());
+            all.failures.add(e.failures.sum());
+        }
+        out.put("ALL", summarize(all, secs));
+        return out;
+    }
+
+    private static EndpointSummary summarize(Endpoint e, double secs) {
+        Histogram h = e.latency;
+        long n = h.getTotalCount();
+        return new EndpointSummary(n, e.ok.sum(), e.clientErrors.sum(), e.serverErrors.sum(), e.failures.sum(),
+                secs > 0 ? n / secs : 0,
+                ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)), ms(h.getMaxValue()));
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,190 @@
+package com.docuflow.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One simulated user: logs in, then loops over a role-weighted mix of actions with think time between them
+ * until the run stops. Documents flow between roles through {@link Shared} queues, since Reviewers cannot
+ * list other users' documents.
+ */
+final class VirtualUser implements Runnable {
+
+    enum Role { SUBMITTER, REVIEWER, APPROVER }
+
+    static final String[] TAGS = {"finance", "legal", "hr", "ops", "sales", "report"};
+    static final String[] SEARCH_TERMS = {"quarterly report", "contract", "invoice", "policy", "review", "budget"};
+
+    /** Hand-off between roles, plus a ring of recent ids for read traffic. */
+    static final class Shared {
+        private static final int RECENT = 4096;
+
+        final Queue<String> submitted = new ConcurrentLinkedQueue<>();
+        final Queue<String> inReview = new ConcurrentLinkedQueue<>();
+        private final AtomicReferenceArray<String> recent = new AtomicReferenceArray<>(RECENT);
+        private final AtomicLong recentCount = new AtomicLong();
+        private final Client.FilePart textFile;
+        private final Client.FilePart image;
+        private volatile boolean stopped;
+
+        Shared(Client.FilePart textFile, Client.FilePart image) {
+            this.textFile = textFile;
+            this.image = image;
+        }
+
+        void stop() { stopped = true; }
+
+        void remember(String id) {
+            recent.set((int) (recentCount.getAndIncrement() % RECENT), id);
+        }
+
+        String anyRecent(Random random) {
+            long n = Math.min(recentCount.get(), RECENT);
+            return n == 0 ? null : recent.get(random.nextInt((int) n));
+        }
+    }
+
+    private final String username;
+    private final Role role;
+    private final Client client;
+    private final Shared shared;
+    private final long thinkMs;
+    private final Random random;
+    private final Deque<String> drafts = new ArrayDeque<>();
+    private final Deque<String> files = new ArrayDeque<>();
+    private String token;
+
+    VirtualUser(String username, Role role, Client client, Shared shared, long thinkMs, long seed) {
+        this.username = username;
+        this.role = role;
+        this.client = client;
+        this.shared = shared;
+        this.thinkMs = thinkMs;
+        this.random = new Random(seed);
+    }
+
+    /** Roughly 70% Submitters, 20% Reviewers and 10% Approvers; the username carries the role for demo logins. */
+    static VirtualUser create(int index, Client client, Shared shared, long thinkMs, long seed) {
+        int slot = index % 10;
+        Role role = slot < 7 ? Role.SUBMITTER : slot < 9 ? Role.REVIEWER : Role.APPROVER;
+        String name = String.format("lt-%s-%05d", role.name().toLowerCase(), index);
+        return new VirtualUser(name, role, client, shared, thinkMs, seed + index);
+    }
+
+    Role role() { return role; }
+
+    @Override
+    public void run() {
+        try {
+            while (!shared.stopped && token == null) {
+                token = client.login(username);
+                if (token == null) think();
+            }
+            while (!shared.stopped) {
+                switch (role) {
+                    case SUBMITTER -> submitter();
+                    case REVIEWER -> reviewer();
+                    case APPROVER -> approver();
+                }
+                think();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submitter() throws InterruptedException {
+        int roll = random.nextInt(100);
+        if (roll < 15) upload();
+        else if (roll < 25 && !drafts.isEmpty()) submit(drafts.poll());
+        else if (roll < 30 && drafts.isEmpty()) findDrafts();
+        else if (roll < 55) client.list(token, null, 20);
+        else if (roll < 80) client.unreadCount(token, username);
+        else if (roll < 90) client.notifications(token, username);
+        else if (roll < 95 && !files.isEmpty()) client.preview(token, files.peekLast());
+        else client.list(token, null, 20);
+    }
+
+    private void reviewer() throws InterruptedException {
+        int roll = random.nextInt(100);
+        if (roll < 30) {
+            String id = shared.submitted.poll();
+            if (id == null) client.list(token, null, 20);
+            else if (client.transition(token, id, "Under Review").status() == 202) shared.inReview.add(id);
+        } else if (roll < 55) client.unreadCount(token, username);
+        else if (roll < 65) client.notifications(token, username);
+        else if (roll < 80) read();
+        else if (roll < 90) client.search(token, term());
+        else client.list(token, null, 20);
+    }
+
+    private void approver() throws InterruptedException {
+        int roll = random.nextInt(100);
+        if (roll < 30) {
+            String id = shared.inReview.poll();
+            if (id == null) client.list(token, "Under Review", 20);
+            else client.transition(token, id, random.nextInt(100) < 80 ? "Approved" : "Rejected");
+        } else if (roll < 55) client.list(token, "Under Review", 20);
+        else if (roll < 70) client.unreadCount(token, username);
+        else if (roll < 80) client.search(token, term());
+        else if (roll < 95) read();
+        else client.analytics(token);
+    }
+
+    private void upload() throws InterruptedException {
+        String title = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)] + " " + username + " " + random.nextInt(1_000_000);
+        String tag = TAGS[random.nextInt(TAGS.length)];
+        int kind = random.nextInt(10);
+        Client.FilePart file = kind < 5 ? null : kind < 8 ? shared.textFile : shared.image;
+        String id = client.upload(token, title, tag, file == null ? inlineText(title) : null, file);
+        if (id == null) return;
+        drafts.add(id);
+        if (file != null) files.add(id);
+        if (files.size() > 16) files.poll();
+        shared.remember(id);
+    }
+
+    private void submit(String id) throws InterruptedException {
+        if (client.transition(token, id, "Submitted").status() == 202) shared.submitted.add(id);
+    }
+
+    /** Picks up Drafts this user made earlier, e.g. ones whose submit failed. */
+    private void findDrafts() throws InterruptedException {
+        JsonNode page = client.list(token, "Draft", 20);
+        if (page == null) return;
+        for (JsonNode d : page) {
+            String id = d.path("id").asText(null);
+            if (id != null && drafts.size() < 20 && !drafts.contains(id)) drafts.add(id);
+        }
+    }
+
+    private void read() throws InterruptedException {
+        String id = shared.anyRecent(random);
+        if (id != null) client.get(token, id);
+        else client.list(token, null, 20);
+    }
+
+    private String term() {
+        return SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+    }
+
+    private String inlineText(String title) {
+        StringBuilder sb = new StringBuilder(2048).append(title).append('\n');
+        for (int i = 0, lines = 10 + random.nextInt(30); i < lines; i++) {
+            sb.append("Line ").append(i).append(": ").append(term()).append(" for ").append(TAGS[random.nextInt(TAGS.length)]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void think() throws InterruptedException {
+        // 0.5x..1.5x so users don't fire in lockstep
+        Thread.sleep(thinkMs / 2 + (thinkMs == 0 ? 0 : random.nextLong(thinkMs)));
+    }
+}
@@ -27,8 +27,14 @@ export function AppHeader() {
       const n = await api.listNotifications(user.username).catch(() => []);
       if (mounted) setNotes(n || []);
     })();
+    const close = user
+      ? api.subscribeNotifications(user.username, (note: any) => {
+          if (mounted) setNotes((prev) => [note, ...prev]);
+        })
+      : () => {};
     return () => {
       mounted = false;
+      close();
     };
   }, [user]);
 
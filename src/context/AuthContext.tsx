@@ -1,10 +1,11 @@
 import React, { createContext, useContext, useMemo, useState } from 'react';
+import { api } from '../services/api';
 
 type Role = 'Submitter' | 'Reviewer' | 'Approver';
 
 type AuthContextValue = {
   isAuthenticated: boolean;
-  user: { username: string; displayName?: string; role: Role } | null;
+  user: { username: string; displayName?: string; role: Role; token?: string; expiresAt?: string } | null;
   login: (username: string, password: string, displayName?: string) => Promise<void>;
   logout: () => void;
 };
@@ -18,13 +19,20 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
   });
 
   const login = async (username: string, password: string, displayName?: string) => {
-    await new Promise((r) => setTimeout(r, 400));
-    const role: Role = username.toLowerCase().includes('approver')
-      ? 'Approver'
-      : username.toLowerCase().includes('reviewer')
-      ? 'Reviewer'
-      : 'Submitter';
-    const nextUser = { username, displayName, role } as const;
+    let nextUser: NonNullable<AuthContextValue['user']>;
+    try {
+      const t = await api.login(username, password);
+      nextUser = { username: t.username, displayName, role: t.role, token: t.token, expiresAt: t.expiresAt };
+    } catch (e: any) {
+      if (e?.message === 'invalid credentials') throw e;
+      // backend unreachable: offline demo mode against the local mock, role taken from the username
+      const role: Role = username.toLowerCase().includes('approver')
+        ? 'Approver'
+        : username.toLowerCase().includes('reviewer')
+        ? 'Reviewer'
+        : 'Submitter';
+      nextUser = { username, displayName, role };
+    }
     setUser(nextUser as any);
     localStorage.setItem('docuflow_user', JSON.stringify(nextUser));
     const raw = localStorage.getItem('docuflow_logins');
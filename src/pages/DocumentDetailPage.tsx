@@ -87,7 +87,7 @@ export default function DocumentDetailPage() {
     setSaving(true);
     try {
       try {
-        await fetch(`${import.meta.env.VITE_API_BASE || 'http://localhost:9090/api'}/documents/${doc.id}`, { method: 'DELETE' });
+        await api.deleteDocument(doc.id);
       } catch {}
       try { const { mockApi } = await import('../services/mockApi'); await mockApi.remove(doc.id); } catch {}
       navigate('/');
@@ -99,22 +99,48 @@ export default function DocumentDetailPage() {
   };
 
   const fileInfo = useMemo(() => {
-    if (!doc) return null;
-    if (!doc.content || !doc.content.startsWith('file:')) return null;
-    const match = doc.content.match(/^file:(.*?);type:(.*?);data:(.*)$/);
-    if (!match) return null;
-    return { name: match[1], type: match[2], data: match[3] } as { name: string; type: string; data: string };
+    const d = doc as any;
+    if (!d || !d.fileId) return null;
+    return { name: d.fileName || d.id, type: d.contentType || 'application/octet-stream' } as { name: string; type: string };
   }, [doc]);
 
-  const download = () => {
-    if (!fileInfo) return;
-    const blob = new Blob([Uint8Array.from(atob(fileInfo.data), (c) => c.charCodeAt(0))], { type: fileInfo.type });
-    const url = URL.createObjectURL(blob);
-    const a = document.createElement('a');
-    a.href = url;
-    a.download = fileInfo.name;
-    a.click();
-    URL.revokeObjectURL(url);
+  // generated in the background after upload; poll briefly while it is pending
+  const [preview, setPreview] = useState<{ text?: string; thumbnailUrl?: string } | null>(null);
+  useEffect(() => {
+    if (!doc || !fileInfo) return;
+    let cancelled = false;
+    let url: string | undefined;
+    let timer: number | undefined;
+    const load = async (attempt: number) => {
+      const p = await api.getPreview(doc.id).catch(() => null);
+      if (cancelled || !p) return;
+      if (p.pending) {
+        if (attempt < 10) timer = window.setTimeout(() => load(attempt + 1), 2000);
+        return;
+      }
+      if (p.thumbnail) url = (await api.getThumbnailUrl(doc.id)) || undefined;
+      if (!cancelled) setPreview({ text: p.text, thumbnailUrl: url });
+    };
+    load(0);
+    return () => {
+      cancelled = true;
+      if (timer) clearTimeout(timer);
+      if (url) URL.revokeObjectURL(url);
+    };
+  }, [doc?.id, fileInfo]);
+
+  const download = async () => {
+    if (!doc || !fileInfo) return;
+    try {
+      const url = URL.createObjectURL(await api.downloadFile(doc.id));
+      const a = document.createElement('a');
+      a.href = url;
+      a.download = fileInfo.name;
+      a.click();
+      URL.revokeObjectURL(url);
+    } catch {
+      showToast('Download failed', true);
+    }
   };
 
   // simple toast system
@@ -164,11 +190,9 @@ export default function DocumentDetailPage() {
                 <span className="file-name">{fileInfo.name}</span>
                 <button className="btn-secondary" onClick={download}>Download</button>
               </div>
-              {fileInfo.type.includes('pdf') && (
-                <object data={`data:${fileInfo.type};base64,${fileInfo.data}`} type={fileInfo.type} width="100%" height="500">
-                  <p>PDF preview unavailable. Use download.</p>
-                </object>
-              )}
+              {preview?.thumbnailUrl && <img src={preview.thumbnailUrl} alt={fileInfo.name} style={{ maxWidth: '100%' }} />}
+              {preview?.text && <pre className="content-box">{preview.text}</pre>}
+              {!preview && <p>Preview unavailable. Use download.</p>}
             </div>
           ) : (
             <pre className="content-box">{doc.content}</pre>
@@ -3,18 +3,43 @@ import { DocumentRecord, WorkflowState } from "./mockApi";
 const API_BASE =
   (import.meta as any).env?.VITE_API_BASE || "http://localhost:9090/api";
 
+// bearer token from /auth/token, kept with the user in localStorage
+function authHeaders(extra: Record<string, string> = {}): Record<string, string> {
+  const headers: Record<string, string> = { ...extra };
+  const raw = localStorage.getItem("docuflow_user");
+  if (raw) {
+    try {
+      const u = JSON.parse(raw);
+      if (u.token) headers["Authorization"] = `Bearer ${u.token}`;
+    } catch {}
+  }
+  return headers;
+}
+
+function accessToken(): string {
+  try {
+    return JSON.parse(localStorage.getItem("docuflow_user") || "{}").token || "";
+  } catch {
+    return "";
+  }
+}
+
 export const api: any = {
+  // { token, username, role, expiresAt }; throws "invalid credentials" on 401, a network error when offline
+  async login(username: string, password: string) {
+    const res = await fetch(`${API_BASE}/auth/token`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({ username, password }),
+    });
+    if (res.status === 401) throw new Error("invalid credentials");
+    if (!res.ok) throw new Error("login failed");
+    return await res.json();
+  },
+
   async listDocuments(): Promise<DocumentRecord[]> {
     try {
-      const headers: any = {};
-      const raw = localStorage.getItem("docuflow_user");
-      if (raw) {
-        try {
-          const u = JSON.parse(raw);
-          headers["X-USER"] = u.username;
-          headers["X-ROLE"] = u.role;
-        } catch {}
-      }
+      const headers = authHeaders();
       const res = await fetch(`${API_BASE}/documents`, { headers });
       if (!res.ok) throw new Error("failed");
       const data = await res.json();
@@ -29,15 +54,7 @@ export const api: any = {
 
   async listInbox(): Promise<DocumentRecord[]> {
     try {
-      const headers: any = {};
-      const raw = localStorage.getItem("docuflow_user");
-      if (raw) {
-        try {
-          const u = JSON.parse(raw);
-          headers["X-USER"] = u.username;
-          headers["X-ROLE"] = u.role;
-        } catch {}
-      }
+      const headers = authHeaders();
       const res = await fetch(`${API_BASE}/documents`, { headers });
       if (!res.ok) throw new Error("failed");
       const data = await res.json();
@@ -53,9 +70,25 @@ export const api: any = {
     }
   },
 
+  async searchDocuments(
+    q: string,
+    opts: { tag?: string; workflowState?: WorkflowState; page?: number; size?: number } = {}
+  ) {
+    const headers = authHeaders();
+    const params = new URLSearchParams({ q });
+    if (opts.tag) params.set("tag", opts.tag);
+    if (opts.workflowState) params.set("workflowState", opts.workflowState);
+    if (opts.page != null) params.set("page", String(opts.page));
+    if (opts.size != null) params.set("size", String(opts.size));
+    const res = await fetch(`${API_BASE}/documents/search?${params}`, { headers });
+    if (!res.ok) throw new Error("search failed");
+    // { total, page, size, items, tags: [{ tag, count }] }
+    return await res.json();
+  },
+
   async listTemplates() {
     try {
-      const res = await fetch(`${API_BASE}/templates`);
+      const res = await fetch(`${API_BASE}/templates`, { headers: authHeaders() });
       if (!res.ok) throw new Error("failed");
       return await res.json();
     } catch {
@@ -77,15 +110,7 @@ export const api: any = {
         fd.append("author", form.author);
         form.tags.forEach((t) => fd.append("tags", t));
         fd.append("file", form.file);
-        const headers: any = {};
-        const raw = localStorage.getItem("docuflow_user");
-        if (raw) {
-          try {
-            const u = JSON.parse(raw);
-            headers["X-USER"] = u.username;
-            headers["X-ROLE"] = u.role;
-          } catch {}
-        }
+        const headers = authHeaders();
         const res = await fetch(`${API_BASE}/documents`, {
           method: "POST",
           body: fd,
@@ -100,15 +125,7 @@ export const api: any = {
       fd.append("author", form.author);
       form.tags.forEach((t) => fd.append("tags", t));
       if (form.content) fd.append("content", form.content);
-      const headers: any = {};
-      const raw = localStorage.getItem("docuflow_user");
-      if (raw) {
-        try {
-          const u = JSON.parse(raw);
-          headers["X-USER"] = u.username;
-          headers["X-ROLE"] = u.role;
-        } catch {}
-      }
+      const headers = authHeaders();
       const res = await fetch(`${API_BASE}/documents`, {
         method: "POST",
         body: fd,
@@ -128,15 +145,7 @@ export const api: any = {
   },
   async getDocument(id: string) {
     try {
-      const headers: any = {};
-      const raw = localStorage.getItem("docuflow_user");
-      if (raw) {
-        try {
-          const u = JSON.parse(raw);
-          headers["X-USER"] = u.username;
-          headers["X-ROLE"] = u.role;
-        } catch {}
-      }
+      const headers = authHeaders();
       const res = await fetch(`${API_BASE}/documents/${id}`, { headers });
       if (!res.ok) throw new Error("failed");
       return await res.json();
@@ -146,9 +155,83 @@ export const api: any = {
     }
   },
 
+  // { text, thumbnail, thumbnailWidth, thumbnailHeight }, { pending: true } while generating, null when there is none
+  async getPreview(id: string) {
+    const res = await fetch(`${API_BASE}/documents/${id}/preview`, { headers: authHeaders() });
+    if (res.status === 202) return { pending: true };
+    if (!res.ok) return null;
+    return await res.json();
+  },
+
+  // object URL for an <img>; the caller revokes it
+  async getThumbnailUrl(id: string) {
+    const res = await fetch(`${API_BASE}/documents/${id}/preview/thumbnail`, { headers: authHeaders() });
+    if (!res.ok) return null;
+    return URL.createObjectURL(await res.blob());
+  },
+
+  async downloadFile(id: string): Promise<Blob> {
+    const res = await fetch(`${API_BASE}/documents/${id}/file`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("download failed");
+    return await res.blob();
+  },
+
+  async deleteDocument(id: string) {
+    const res = await fetch(`${API_BASE}/documents/${id}`, { method: "DELETE", headers: authHeaders() });
+    if (!res.ok && res.status !== 404) throw new Error("delete failed");
+  },
+
+  async editContent(id: string, content: string, expectedVersion?: number) {
+    const headers = authHeaders({ "Content-Type": "application/json" });
+    const res = await fetch(`${API_BASE}/documents/${id}/content`, {
+      method: "PUT",
+      headers,
+      body: JSON.stringify({ content, expectedVersion }),
+    });
+    // 409 carries the current version so the caller can reload and retry
+    if (!res.ok && res.status !== 409) throw new Error("edit failed");
+    return { ok: res.ok, ...(await res.json()) };
+  },
+
+  async listVersions(id: string, before?: number) {
+    const q = before != null ? `?before=${before}` : "";
+    const res = await fetch(`${API_BASE}/documents/${id}/versions${q}`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("failed");
+    // [{ version, size, author, createdAt }], newest first
+    return await res.json();
+  },
+
+  async getVersion(id: string, version: number) {
+    const res = await fetch(`${API_BASE}/documents/${id}/versions/${version}`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("failed");
+    return await res.json();
+  },
+
+  async diffVersions(id: string, version: number, against?: number) {
+    const q = against != null ? `?against=${against}` : "";
+    const res = await fetch(`${API_BASE}/documents/${id}/versions/${version}/diff${q}`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("failed");
+    // { from, to, changes: [{ op, oldLine, newLine, count, lines }] }
+    return await res.json();
+  },
+
+  async getStateCounts() {
+    const res = await fetch(`${API_BASE}/analytics/states`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("failed");
+    // { [workflowState]: count }
+    return await res.json();
+  },
+
+  async getAnalyticsSummary(days = 30) {
+    const res = await fetch(`${API_BASE}/analytics/summary?days=${days}`, { headers: authHeaders() });
+    if (!res.ok) throw new Error("failed");
+    // { from, to, created, edited, deleted, actions, topActors, turnaround: { [action]: { count, avgMs, maxMs } } }
+    return await res.json();
+  },
+
   async getAudits(documentId: string) {
     try {
-      const res = await fetch(`${API_BASE}/audits/document/${documentId}`);
+      const res = await fetch(`${API_BASE}/audits/document/${documentId}`, { headers: authHeaders() });
       if (!res.ok) throw new Error("failed");
       return await res.json();
     } catch {
@@ -159,7 +242,8 @@ export const api: any = {
   async listNotifications(username: string) {
     try {
       const res = await fetch(
-        `${API_BASE}/notifications/user/${encodeURIComponent(username)}`
+        `${API_BASE}/notifications/user/${encodeURIComponent(username)}`,
+        { headers: authHeaders() }
       );
       if (!res.ok) throw new Error("failed");
       return await res.json();
@@ -168,11 +252,27 @@ export const api: any = {
     }
   },
 
+  // push channel; returns a function that closes the stream
+  subscribeNotifications(username: string, onNotification: (n: any) => void) {
+    if (typeof EventSource === "undefined") return () => {};
+    // EventSource cannot send headers; the server accepts the token as a query parameter on streams only
+    const es = new EventSource(
+      `${API_BASE}/notifications/user/${encodeURIComponent(username)}/stream` +
+        `?access_token=${encodeURIComponent(accessToken())}`
+    );
+    es.addEventListener("notification", (e: MessageEvent) => {
+      try {
+        onNotification(JSON.parse(e.data));
+      } catch {}
+    });
+    return () => es.close();
+  },
+
   async createNotification(username: string, message: string) {
     try {
       const res = await fetch(`${API_BASE}/notifications`, {
         method: "POST",
-        headers: { "Content-Type": "application/json" },
+        headers: authHeaders({ "Content-Type": "application/json" }),
         body: JSON.stringify({ username, message }),
       });
       if (!res.ok) throw new Error("failed");
@@ -182,20 +282,11 @@ export const api: any = {
     }
   },
 
+  // the acting user is whoever the token belongs to; actor is only used by the offline mock
   async setWorkflow(id: string, state: WorkflowState, actor?: string) {
     try {
-      const url =
-        `${API_BASE}/workflow/${id}/state?state=${encodeURIComponent(state)}` +
-        (actor ? `&actor=${encodeURIComponent(actor)}` : "");
-      const headers: any = {};
-      const raw = localStorage.getItem("docuflow_user");
-      if (raw) {
-        try {
-          const u = JSON.parse(raw);
-          headers["X-USER"] = u.username;
-          headers["X-ROLE"] = u.role;
-        } catch {}
-      }
+      const url = `${API_BASE}/workflow/${id}/state?state=${encodeURIComponent(state)}`;
+      const headers = authHeaders();
       const res = await fetch(url, { method: "POST", headers });
       if (!res.ok) throw new Error("failed");
       // refresh document